@@ -38,8 +38,6 @@ public class CompositeView extends Div {
         final BinderCrudEditor<Localization> editor = new BinderCrudEditor<>(binder, form);
         final Crud<Localization> crud = new Crud<>(Localization.class, editor);
 
-        language.addValueChangeListener(e -> crud.setDirty(true));
-
         final CrudI18n i18n = CrudI18n.createDefault();
         i18n.setNewItem("New Locale");
         i18n.setEditItem("Edit Locale");
@@ -44,6 +44,7 @@ public class CrudInTemplate extends PolymerTemplate<TemplateModel> {
 
         PersonCrudDataProvider provider = new PersonCrudDataProvider();
         crud.setDataProvider(provider);
+        crud.setEditItemLoader(Person::clone);
 
         crud.addNewListener(e -> addEvent("New: " + e.getItem()));
         crud.addEditListener(e -> addEvent("Edit: " + e.getItem()));
@@ -4,6 +4,7 @@ import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.crud.Crud;
 import com.vaadin.flow.component.crud.CrudVariant;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.html.Span;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.page.BodySize;
 import com.vaadin.flow.router.Route;
@@ -25,11 +26,18 @@ public class CustomGridView extends VerticalLayout {
         PersonCrudDataProvider dataProvider = new PersonCrudDataProvider();
 
         grid.setDataProvider(dataProvider);
+        crud.setEditItemLoader(Person::clone);
         crud.addSaveListener(e -> dataProvider.persist(e.getItem()));
         crud.addDeleteListener(e -> dataProvider.delete(e.getItem()));
 
         Crud.addEditColumn(grid);
 
+        // The edit column is a regular grid column, also in header rows
+        final Grid.Column<Person> editColumn = grid.getColumnByKey("vaadin-crud-edit-column");
+        grid.appendHeaderRow().getCell(editColumn).setText("Edit");
+        final Span editColumnKey = new Span(editColumn.getKey());
+        editColumnKey.setId("editColumnKey");
+
         // no-border should not be reflected to the custom grid
         final Button toggleBordersButton = new Button("Toggle borders",
                 event -> {
@@ -54,6 +62,6 @@ public class CustomGridView extends VerticalLayout {
         openNewItemButton.setId("newItemEditor");
 
         setHeight("100%");
-        add(crud, toggleBordersButton, customGridClickToEditButton, openNewItemButton);
+        add(crud, toggleBordersButton, customGridClickToEditButton, openNewItemButton, editColumnKey);
     }
 }
@@ -24,6 +24,7 @@ public class EditorPositionView extends VerticalLayout {
         PersonCrudDataProvider dataProvider = new PersonCrudDataProvider();
 
         grid.setDataProvider(dataProvider);
+        crud.setEditItemLoader(Person::clone);
         crud.addSaveListener(e -> dataProvider.persist(e.getItem()));
         crud.addDeleteListener(e -> dataProvider.delete(e.getItem()));
 
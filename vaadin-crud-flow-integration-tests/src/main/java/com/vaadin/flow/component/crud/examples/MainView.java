@@ -54,6 +54,7 @@ public class MainView extends VerticalLayout {
                 footer.setText(String.format("%d items available", count)));
 
         crud.setDataProvider(dataProvider);
+        crud.setEditItemLoader(Person::clone);
 
         final Button showFiltersButton = new Button("Show filter");
         showFiltersButton.setId("showFilter");
@@ -21,6 +21,7 @@ public class NoFilterView extends VerticalLayout {
 
         final PersonCrudDataProvider dataProvider = new PersonCrudDataProvider();
         crud.setDataProvider(dataProvider);
+        crud.setEditItemLoader(Person::clone);
 
         setHeight("100%");
         add(crud);
@@ -28,6 +28,7 @@ public class ProtectedBackendView extends VerticalLayout {
         dataProvider.setDatabase(data);
 
         crud.setDataProvider(dataProvider);
+        crud.setEditItemLoader(Person::clone);
 
         crud.addDeleteListener(e -> {
             throw new RuntimeException("Forbidden to delete any user");
@@ -1,5 +1,7 @@
 package com.vaadin.flow.component.crud.test;
 
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
@@ -7,6 +9,7 @@ import org.junit.Test;
 import com.vaadin.flow.component.button.testbench.ButtonElement;
 import com.vaadin.flow.component.confirmdialog.testbench.ConfirmDialogElement;
 import com.vaadin.flow.component.crud.testbench.CrudElement;
+import com.vaadin.flow.component.grid.testbench.GridColumnElement;
 import com.vaadin.flow.component.grid.testbench.GridElement;
 import com.vaadin.flow.component.textfield.testbench.TextFieldElement;
 import com.vaadin.testbench.TestBenchElement;
@@ -116,6 +119,16 @@ public class CustomGridIT extends AbstractParallelTest {
         Assert.assertEquals("New item", getEditorHeaderText(crud));
     }
 
+    @Test
+    public void editColumnIsAlignedInHeaderRows() {
+        GridElement grid = $(GridElement.class).first();
+        List<GridColumnElement> columns = grid.getVisibleColumns();
+
+        Assert.assertEquals("Edit", columns.get(columns.size() - 1).getHeaderCell().getText());
+        Assert.assertEquals("vaadin-crud-edit-column",
+                $(TestBenchElement.class).id("editColumnKey").getText());
+    }
+
     private String getEditorHeaderText(CrudElement crud) {
         return crud.getEditor()
                 .$(TestBenchElement.class)
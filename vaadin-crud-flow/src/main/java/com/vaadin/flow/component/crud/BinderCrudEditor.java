@@ -18,21 +18,88 @@ package com.vaadin.flow.component.crud;
  */
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.HasValidation;
 import com.vaadin.flow.component.HasValue;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.data.binder.BeanPropertySet;
 import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.BinderValidationStatus;
+import com.vaadin.flow.data.binder.BindingValidationStatus;
+import com.vaadin.flow.data.binder.PropertyDefinition;
+import com.vaadin.flow.data.binder.PropertySet;
+import com.vaadin.flow.data.binder.Setter;
 import com.vaadin.flow.data.binder.ValidationException;
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 /**
  * A CRUD editor that binds editor fields to bean properties using a {@link Binder}.
+ * <p>
+ * The editor records the values of the bean properties bound by name, for instance with
+ * {@code Binder#bindInstanceFields(Object)} or {@code Binding#bind(String)}, when an item is set,
+ * and reports the properties changed by {@link #writeItemChanges()} through
+ * {@link #getItemChanges()}. Unbound properties are never read, so lazily loaded associations
+ * are not fetched. Changes are only tracked when all fields are bound by property name, as the
+ * properties of fields bound with getter and setter functions are not known.
+ * Property values are compared with {@link Object#equals(Object)}, so values modified in place,
+ * such as collections, are only reported if the binder replaces them.
+ * <p>
+ * With {@link #setIncrementalValidation(boolean) incremental validation} the editor only runs
+ * the validators of fields whose values have not already passed validation for the edited item.
+ * {@link #addAsyncValidator(HasValue, SerializableFunction) Asynchronous validators} run
+ * expensive checks, such as uniqueness queries, off the UI thread as soon as a field value
+ * changes, and saving is only allowed once they succeeded. Their results only reach the browser
+ * by themselves when server push or polling is enabled.
+ * <p>
+ * When switching from one item to another with validation, as {@link Crud} does on edit, only
+ * the fields whose bound values differ between the items are updated, provided the user has not
+ * changed any field.
  *
  * @param <E> the bean type
  * @see Binder
  */
 public class BinderCrudEditor<E> implements CrudEditor<E> {
 
+    private static final int VALIDATION_CACHE_SIZE = 1000;
+
     private final Binder<E> binder;
     private final Component view;
     private E item;
+    private Map<String, Object> initialValues;
+    private final List<SerializableConsumer<Boolean>> dirtyChangeListeners = new ArrayList<>();
+    private final List<SerializableConsumer<Serializable>> draftListeners = new ArrayList<>();
+    private boolean restoringDraft;
+    private boolean clearing;
+    private boolean dirty;
+    private transient PropertySet<E> propertySet;
+    private transient Class<?> propertySetType;
+
+    private final List<AsyncValidator<?>> asyncValidators = new ArrayList<>();
+    private final ValidationCache validationCache = new ValidationCache();
+    private List<Binder.Binding<E, ?>> bindings;
+    private Map<Binder.Binding<E, ?>, Object> readValues;
+    private boolean incrementalValidation;
+    private String asyncValidationPendingMessage = "Validation did not complete";
 
     /**
      * Initializes a BinderCrudEditor with the given binder and no form view
@@ -52,14 +119,193 @@ public class BinderCrudEditor<E> implements CrudEditor<E> {
     public BinderCrudEditor(Binder<E> binder, Component view) {
         this.binder = binder;
         this.view = view;
+
+        binder.addValueChangeListener(e -> {
+            if (item != null && binder.hasChanges() && !restoringDraft && !draftListeners.isEmpty()) {
+                final Serializable draft = createDraft();
+                new ArrayList<>(draftListeners).forEach(listener -> listener.accept(draft));
+            }
+        });
+        binder.addStatusChangeListener(e -> setDirty(item != null && binder.hasChanges()));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The editor is dirty when the binder has changes, and clean again when an item is set
+     * or the editor is cleared.
+     */
+    @Override
+    public Registration addDirtyChangeListener(SerializableConsumer<Boolean> listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        dirtyChangeListeners.add(listener);
+        return () -> dirtyChangeListeners.remove(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * A draft holds the values of the binder fields, which must be serializable for the draft to
+     * be stored outside of the session.
+     */
+    @Override
+    public Registration addDraftListener(SerializableConsumer<Serializable> listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+        draftListeners.add(listener);
+        return () -> draftListeners.remove(listener);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The draft is ignored if the binder fields changed since it was created.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void restoreDraft(Serializable draft) {
+        final List<HasValue<?, ?>> fields = binder.getFields().collect(Collectors.toList());
+        if (!(draft instanceof List) || ((List<?>) draft).size() != fields.size()) {
+            return;
+        }
+
+        final List<?> values = (List<?>) draft;
+        restoringDraft = true;
+        try {
+            for (int i = 0; i < fields.size(); i++) {
+                ((HasValue<?, Object>) fields.get(i)).setValue(values.get(i));
+            }
+        } finally {
+            restoringDraft = false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The properties are known when all fields are bound by property name, for instance
+     * with {@code Binder#bindInstanceFields(Object)}.
+     */
+    @Override
+    public Optional<Set<String>> getRequiredProperties(Collection<String> beanProperties) {
+        final Set<String> properties = beanProperties.stream()
+                .filter(property -> binder.getBinding(property).isPresent())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        return properties.size() == binder.getFields().count() ? Optional.of(properties) : Optional.empty();
+    }
+
+    private Serializable createDraft() {
+        return binder.getFields()
+                .map(HasValue::getValue)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private void setDirty(boolean dirty) {
+        if (this.dirty != dirty) {
+            this.dirty = dirty;
+            new ArrayList<>(dirtyChangeListeners).forEach(listener -> listener.accept(dirty));
+        }
+    }
+
+    /**
+     * Sets whether validation is incremental. Incremental validation only runs the validators of
+     * a field when its value has not yet passed validation for the edited item. Setting another
+     * item forgets the results. The first validation after the bindings of the binder change
+     * validates all fields.
+     * <p>
+     * Validators set with {@link Binder#withValidator} on the binder itself are not run by
+     * incremental validation, since a binder cannot run them separately from the field validators.
+     * They run when the item is written, together with the field validators.
+     * By default validation is not incremental.
+     *
+     * @param incrementalValidation true to validate only changed fields, false to always
+     *                              validate the whole binder
+     */
+    public void setIncrementalValidation(boolean incrementalValidation) {
+        this.incrementalValidation = incrementalValidation;
+    }
+
+    /**
+     * Gets whether validation is incremental.
+     *
+     * @return true if only changed fields are validated
+     * @see #setIncrementalValidation(boolean)
+     */
+    public boolean isIncrementalValidation() {
+        return incrementalValidation;
+    }
+
+    /**
+     * Adds a validator that runs asynchronously, for instance a uniqueness check querying a
+     * database. The validator is started when the value of the field changes, except when the
+     * editor is cleared. Results are reused as long as the field value does not change.
+     * <p>
+     * {@link #validate()} does not wait for the result, it fails as long as the result is pending
+     * or failing. Saving while a check is pending is therefore rejected like saving an invalid
+     * value, with the {@link #setAsyncValidationPendingMessage(String) pending message} shown as
+     * the error of the field. The user saves again once the check completed.
+     * <p>
+     * The validator must not access the UI, as its result may be computed in another thread.
+     * If the field implements {@link HasValidation}, a failing or pending result is shown as its
+     * error. Results completing later are shown with {@link UI#access(com.vaadin.flow.server.Command)}.
+     * Without server push or polling they only reach the browser with the next request, for
+     * instance the next save attempt.
+     *
+     * @param field the field whose value is validated
+     * @param validator the function starting the validation of a value
+     * @param <V> the value type
+     * @return a registration for removing the validator
+     */
+    public <V> Registration addAsyncValidator(HasValue<?, V> field,
+            SerializableFunction<V, CompletionStage<ValidationResult>> validator) {
+        Objects.requireNonNull(field, "Field cannot be null");
+        Objects.requireNonNull(validator, "Validator cannot be null");
+
+        final AsyncValidator<V> asyncValidator = new AsyncValidator<>(field, validator);
+        final Registration valueChangeRegistration = field.addValueChangeListener(e -> {
+            if (!clearing) {
+                asyncValidator.start();
+            }
+        });
+        asyncValidators.add(asyncValidator);
+        return () -> {
+            valueChangeRegistration.remove();
+            asyncValidators.remove(asyncValidator);
+        };
+    }
+
+    /**
+     * Sets the error message shown when saving while an asynchronous validator has not
+     * completed yet, or when it failed with an exception.
+     *
+     * @param message the error message, not {@code null}
+     */
+    public void setAsyncValidationPendingMessage(String message) {
+        this.asyncValidationPendingMessage = Objects.requireNonNull(message, "Message cannot be null");
     }
 
     @Override
     public void setItem(E item, boolean validate) {
+        // Switching between items skips reading the bean when no bound value differs, unless the
+        // user changed something or the bindings are not known yet. Otherwise readBean resets the
+        // changes of the binder, and the fields only send the values that differ to the client.
+        // Validating afterwards refreshes the validation status of all fields.
+        final boolean unchanged = validate && this.item != null && item != null
+                && readValues != null && !binder.hasChanges() && !boundValuesChanged(item);
+
         this.item = item;
-        binder.readBean(item);
+        this.initialValues = item == null ? null : readProperties(item);
+        validationCache.clear();
+        if (!unchanged) {
+            binder.readBean(item);
+            captureReadValues(item);
+        }
+        setDirty(false);
         if (validate) {
-            binder.validate();
+            validateFields();
+            asyncValidators.forEach(AsyncValidator::start);
+            if (readValues == null) {
+                captureReadValues(item);
+            }
         }
     }
 
@@ -68,6 +314,63 @@ public class BinderCrudEditor<E> implements CrudEditor<E> {
         return item;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Compares the current values of the bean properties bound by name with the values they had
+     * when the item was set to this editor. The changes are not known if any field is bound
+     * with getter and setter functions.
+     */
+    @Override
+    public Optional<List<CrudPropertyChange>> getItemChanges() {
+        if (item == null || initialValues == null) {
+            return Optional.empty();
+        }
+
+        final Map<String, Object> values = readProperties(item);
+        if (values == null) {
+            return Optional.empty();
+        }
+
+        final List<CrudPropertyChange> changes = new ArrayList<>();
+        values.forEach((name, value) -> {
+            final Object initialValue = initialValues.get(name);
+            if (!Objects.equals(initialValue, value)) {
+                changes.add(new CrudPropertyChange(name, initialValue, value));
+            }
+        });
+        return Optional.of(changes);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * Applies the changed property values reported by {@link #getItemChanges()} to the given item
+     * with the bean property setters, and shows the result in the fields. Properties changed both
+     * by the user and concurrently get the user's value. The changes cannot be merged, and the
+     * editor keeps its item, when they are not known.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean mergeItemChanges(E currentItem) {
+        Objects.requireNonNull(currentItem, "Current item cannot be null");
+        final Optional<List<CrudPropertyChange>> changes = getItemChanges();
+        if (!changes.isPresent()) {
+            return false;
+        }
+
+        this.item = currentItem;
+        this.initialValues = readProperties(currentItem);
+        changes.get().forEach(change -> propertySet.getProperty(change.getPropertyName())
+                .flatMap(PropertyDefinition::getSetter)
+                .ifPresent(setter -> ((Setter<E, Object>) setter).accept(currentItem, change.getNewValue())));
+
+        binder.readBean(currentItem);
+        captureReadValues(currentItem);
+        setDirty(true);
+        return true;
+    }
+
     @Override
     public void writeItemChanges() {
         try {
@@ -85,13 +388,86 @@ public class BinderCrudEditor<E> implements CrudEditor<E> {
     @Override
     public void clear() {
         this.item = null;
-        binder.readBean(null);
-        binder.getFields().forEach(HasValue::clear);
+        this.initialValues = null;
+        validationCache.clear();
+        readValues = null;
+        clearing = true;
+        try {
+            binder.readBean(null);
+            binder.getFields().forEach(HasValue::clear);
+        } finally {
+            clearing = false;
+        }
+        asyncValidators.forEach(AsyncValidator::reset);
+        setDirty(false);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * Fails while an asynchronous validator has not completed yet, without waiting for it.
+     *
+     * @see #addAsyncValidator(HasValue, SerializableFunction)
+     */
     @Override
     public boolean validate() {
-        return binder.validate().isOk();
+        boolean valid = validateFields();
+        for (AsyncValidator<?> asyncValidator : asyncValidators) {
+            valid &= asyncValidator.check();
+        }
+
+        return valid;
+    }
+
+    private boolean validateFields() {
+        if (!incrementalValidation || bindings == null || bindings.size() != binder.getFields().count()) {
+            final BinderValidationStatus<E> status = binder.validate();
+            bindings = status.getFieldValidationStatuses().stream()
+                    .map(this::cacheResult)
+                    .collect(Collectors.toList());
+            return status.isOk();
+        }
+
+        boolean valid = true;
+        for (Binder.Binding<E, ?> binding : bindings) {
+            if (validationCache.get(cacheKey(binding)) == null) {
+                final BindingValidationStatus<?> status = binding.validate();
+                cacheResult(status);
+                valid &= !status.isError();
+            } else if (binding.getField() instanceof HasValidation) {
+                // Clear an error shown for the value of a previous item
+                ((HasValidation) binding.getField()).setInvalid(false);
+            }
+        }
+        return valid;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Binder.Binding<E, ?> cacheResult(BindingValidationStatus<?> status) {
+        final Binder.Binding<E, ?> binding = (Binder.Binding<E, ?>) status.getBinding();
+        if (!status.isError()) {
+            validationCache.put(cacheKey(binding), Boolean.TRUE);
+        }
+        return binding;
+    }
+
+    private boolean boundValuesChanged(E item) {
+        return bindings.stream()
+                .anyMatch(binding -> !Objects.equals(binding.getGetter().apply(item), readValues.get(binding)));
+    }
+
+    private void captureReadValues(E item) {
+        if (item == null || bindings == null || bindings.size() != binder.getFields().count()) {
+            readValues = null;
+            return;
+        }
+
+        readValues = new HashMap<>();
+        bindings.forEach(binding -> readValues.put(binding, binding.getGetter().apply(item)));
+    }
+
+    private List<Object> cacheKey(Binder.Binding<E, ?> binding) {
+        return Arrays.asList(item, binding, binding.getField().getValue());
     }
 
     /**
@@ -102,4 +478,119 @@ public class BinderCrudEditor<E> implements CrudEditor<E> {
     public Component getView() {
         return view;
     }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readProperties(E item) {
+        if (propertySet == null || propertySetType != item.getClass()) {
+            propertySetType = item.getClass();
+            propertySet = BeanPropertySet.get((Class<E>) propertySetType);
+        }
+
+        final Map<String, Object> values = new LinkedHashMap<>();
+        propertySet.getProperties()
+                .filter(property -> binder.getBinding(property.getName()).isPresent())
+                .forEach(property -> values.put(property.getName(), property.getGetter().apply(item)));
+        // Fields bound with getter and setter functions change properties that are not known
+        return values.size() == binder.getFields().count() ? values : null;
+    }
+
+    /*
+     * Keeps the most recent successful field validations.
+     */
+    private static final class ValidationCache extends LinkedHashMap<List<Object>, Boolean> {
+
+        private ValidationCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Boolean> eldest) {
+            return size() > VALIDATION_CACHE_SIZE;
+        }
+    }
+
+    private final class AsyncValidator<V> implements Serializable {
+
+        private final HasValue<?, V> field;
+        private final SerializableFunction<V, CompletionStage<ValidationResult>> validator;
+        private transient V value;
+        private transient CompletableFuture<ValidationResult> result;
+        private boolean showingError;
+
+        private AsyncValidator(HasValue<?, V> field,
+                               SerializableFunction<V, CompletionStage<ValidationResult>> validator) {
+            this.field = field;
+            this.validator = validator;
+        }
+
+        private void start() {
+            final V currentValue = field.getValue();
+            if (result != null && Objects.equals(value, currentValue)) {
+                return;
+            }
+
+            final UI ui = UI.getCurrent();
+            final CompletableFuture<ValidationResult> started = validator.apply(currentValue).toCompletableFuture();
+            value = currentValue;
+            result = started;
+            started.whenComplete((validationResult, failure) -> {
+                if (ui != null) {
+                    ui.access(() -> completed(started));
+                } else {
+                    completed(started);
+                }
+            });
+        }
+
+        private void reset() {
+            value = null;
+            result = null;
+            showResult(ValidationResult.ok());
+        }
+
+        private void completed(CompletableFuture<ValidationResult> completed) {
+            if (completed == result) {
+                showResult(resultOf(completed));
+            }
+        }
+
+        private boolean check() {
+            start();
+
+            final ValidationResult validationResult = result.isDone()
+                    ? resultOf(result)
+                    : ValidationResult.error(asyncValidationPendingMessage);
+            if (result.isCompletedExceptionally()) {
+                // Start over on the next attempt
+                result = null;
+            }
+
+            showResult(validationResult);
+            return !validationResult.isError();
+        }
+
+        private ValidationResult resultOf(CompletableFuture<ValidationResult> completed) {
+            try {
+                return completed.join();
+            } catch (CompletionException | CancellationException e) {
+                return ValidationResult.error(asyncValidationPendingMessage);
+            }
+        }
+
+        private void showResult(ValidationResult validationResult) {
+            if (!(field instanceof HasValidation)) {
+                return;
+            }
+
+            final HasValidation hasValidation = (HasValidation) field;
+            if (validationResult.isError()) {
+                hasValidation.setErrorMessage(validationResult.getErrorMessage());
+                hasValidation.setInvalid(true);
+                showingError = true;
+            } else if (showingError) {
+                hasValidation.setInvalid(false);
+                showingError = false;
+            }
+        }
+    }
 }
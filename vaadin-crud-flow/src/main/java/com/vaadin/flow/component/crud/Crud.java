@@ -17,29 +17,40 @@ package com.vaadin.flow.component.crud;
  * #L%
  */
 
+import com.vaadin.flow.component.AttachEvent;
 import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentEvent;
 import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.DomEvent;
 import com.vaadin.flow.component.EventData;
 import com.vaadin.flow.component.HasSize;
 import com.vaadin.flow.component.HasTheme;
+import com.vaadin.flow.component.Synchronize;
 import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.dependency.NpmPackage;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.data.provider.DataProvider;
 import com.vaadin.flow.data.renderer.TemplateRenderer;
 import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+import com.vaadin.flow.function.ValueProvider;
 import com.vaadin.flow.internal.JsonSerializer;
 import com.vaadin.flow.shared.Registration;
 import elemental.json.JsonObject;
 
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashSet;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -71,22 +82,50 @@ import java.util.stream.Collectors;
 public class Crud<E> extends Component implements HasSize, HasTheme {
 
     private static final String EDIT_COLUMN_KEY = "vaadin-crud-edit-column";
-    private static final String EVENT_PREVENT_DEFAULT_JS = "event.preventDefault()";
+    private static final String EDIT_LABEL_DATA_KEY = "vaadin-crud-edit-label";
+    // The server handles all Crud events instead of the client side defaults
+    private static final String PREVENT_DEFAULTS_JS = "if (!this.__preventDefaults) {"
+            + "this.__preventDefaults = true;"
+            + "['new', 'edit', 'save', 'cancel', 'delete'].forEach(type =>"
+            + " this.addEventListener(type, e => e.preventDefault()));"
+            + "}";
+    private static final String NOTIFY_DIRTY_JS = "if (!this.__notifyDirty) {"
+            + "this.__notifyDirty = true;"
+            + "this._createNotifyingProperty('__isDirty');"
+            + "}";
     private static final String FORM_SLOT_NAME = "form";
     private static final String GRID_SLOT_NAME = "grid";
     private static final String SLOT_KEY = "slot";
     private static final String TOOLBAR_SLOT_NAME = "toolbar";
 
-    private final Set<ComponentEventListener<NewEvent<E>>> newListeners = new LinkedHashSet<>();
-    private final Set<ComponentEventListener<EditEvent<E>>> editListeners = new LinkedHashSet<>();
-    private final Set<ComponentEventListener<SaveEvent<E>>> saveListeners = new LinkedHashSet<>();
-    private final Set<ComponentEventListener<CancelEvent<E>>> cancelListeners = new LinkedHashSet<>();
-    private final Set<ComponentEventListener<DeleteEvent<E>>> deleteListeners = new LinkedHashSet<>();
+    private final CrudListeners<NewEvent<E>> newListeners = new CrudListeners<>();
+    private final CrudListeners<EditEvent<E>> editListeners = new CrudListeners<>();
+    private final CrudListeners<SaveEvent<E>> saveListeners = new CrudListeners<>();
+    private final CrudListeners<CancelEvent<E>> cancelListeners = new CrudListeners<>();
+    private final CrudListeners<DeleteEvent<E>> deleteListeners = new CrudListeners<>();
+    private final CrudListeners<ConflictEvent<E>> conflictListeners = new CrudListeners<>();
 
     private Class<E> beanType;
+    private transient Constructor<E> beanConstructor;
+    private SerializableSupplier<E> newItemSupplier;
+    private boolean saveAndNew;
+    private int saveAndNewRefreshInterval = 1;
+    private int deferredGridRefreshes;
     private Grid<E> grid;
     private CrudEditor<E> editor;
+    private SerializableSupplier<CrudEditor<E>> editorFactory;
+    private Registration editorDirtyRegistration;
+    private Registration editorDraftRegistration;
+    private CrudDraftStore draftStore;
     private E gridActiveItem;
+    private boolean closePending;
+    private SerializableFunction<E, E> editItemLoader = SerializableFunction.identity();
+    private boolean customEditItemLoader;
+    private E editSourceItem;
+    private SerializableFunction<E, E> rowProjection;
+    private ValueProvider<E, ?> versionProvider;
+    private Object editVersion;
+    private CrudMetrics metrics;
 
     /**
      * Instantiates a new Crud using a custom grid.
@@ -166,72 +205,219 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
         ComponentUtil.addListener(this, NewEvent.class, (ComponentEventListener)
                 ((ComponentEventListener<NewEvent<E>>) e -> {
                     try {
-                        getEditor().setItem(e.getItem() != null ? e.getItem() : getBeanType().newInstance());
+                        setDirty(false);
+                        getEditor().setItem(e.getItem() != null ? e.getItem() : createNewItem());
+                        editSourceItem = null;
+                        editVersion = null;
                         clearActiveItem();
                         setClientIsNew(true);
                     } catch (Exception ex) {
                         throw new RuntimeException("Unable to instantiate new bean", ex);
                     }
 
-                    newListeners.forEach(listener -> listener.onComponentEvent(e));
+                    fire(CrudMetrics.NEW, newListeners, e);
                 }));
 
         ComponentUtil.addListener(this, EditEvent.class, (ComponentEventListener)
                 ((ComponentEventListener<EditEvent<E>>) e -> {
-                    if (getEditor().getItem() != e.getItem()) {
+                    final E sourceItem = e.getItem();
+                    if (sourceItem != editSourceItem || getEditor().getItem() == null) {
+                        e.item = editItemLoader.apply(sourceItem);
+                        editSourceItem = sourceItem;
+                        editVersion = versionProvider != null ? versionProvider.apply(e.getItem()) : null;
+
+                        setDirty(false);
                         getEditor().setItem(e.getItem(), true);
+                        if (draftStore != null) {
+                            getDraftKey().flatMap(draftStore::load).ifPresent(getEditor()::restoreDraft);
+                        }
                         setOpened(true);
                         setClientIsNew(false);
+                        if (isEditOnClick() && e.isFromClient()) {
+                            // The edit event of a row click stands in for a grid item click listener
+                            gridActiveItem = sourceItem;
+                        }
+                        closePending = false;
                         if(isEditOnClick() && getGrid() instanceof CrudGrid) {
-                            getGrid().select(e.getItem());
+                            getGrid().select(sourceItem);
                         }
+                    } else {
+                        e.item = getEditor().getItem();
                     }
 
-                    editListeners.forEach(listener -> listener.onComponentEvent(e));
+                    fire(CrudMetrics.EDIT, editListeners, e);
                 }));
 
         ComponentUtil.addListener(this, CancelEvent.class, (ComponentEventListener)
                 ((ComponentEventListener<CancelEvent<E>>) e -> {
-                    cancelListeners.forEach(listener -> listener.onComponentEvent(e));
-                    if (
-                            (this.gridActiveItem != null && this.getEditor().getItem() == this.gridActiveItem)
+                    fire(CrudMetrics.CANCEL, cancelListeners, e);
+                    if (isEditOnClick() && e.isFromClient() && getUI().isPresent()) {
+                        // Clicking another row cancels the edited item before the clicked row is
+                        // edited in the same round trip, so the editor only closes if no edit follows
+                        closePending = true;
+                        getUI().get().beforeClientResponse(this, context -> {
+                            if (closePending) {
+                                closePending = false;
+                                closeEditor();
+                            }
+                        });
+                    } else if (
+                            (this.gridActiveItem != null && this.editSourceItem == this.gridActiveItem)
                             || this.gridActiveItem == null) {
-                        setOpened(false);
-                        getEditor().clear();
-                        clearActiveItem();
+                        closeEditor();
                     }
                 }));
 
         ComponentUtil.addListener(this, SaveEvent.class, (ComponentEventListener)
                 ((ComponentEventListener<SaveEvent<E>>) e -> {
                     if (!getEditor().validate()) {
+                        if (metrics != null) {
+                            metrics.increment(CrudMetrics.VALIDATION_FAILURES, 1);
+                        }
                         return;
                     }
 
                     getEditor().writeItemChanges();
+                    final E savedItem = getEditor().getItem();
+                    final boolean existingItem = editSourceItem != null;
+                    boolean conflict = false;
+                    boolean rearm = false;
                     try {
-                        saveListeners.forEach(listener -> listener.onComponentEvent(e));
-                        setOpened(false);
-                        getEditor().clear();
+                        fire(CrudMetrics.SAVE, saveListeners, e);
+                        removeDraft();
+                        rearm = saveAndNew && !existingItem;
+                        if (!rearm) {
+                            setOpened(false);
+                            getEditor().clear();
+                        }
+                    } catch (CrudConflictException ex) {
+                        conflict = true;
+                        resolveConflict((E) ex.getCurrentItem());
                     } finally {
-                        if (getGrid().getDataProvider() != null) {
-                            getGrid().getDataProvider().refreshAll();
+                        if (!conflict && getGrid().getDataProvider() != null) {
+                            if (rowProjection != null && existingItem) {
+                                releasePinnedVersion();
+                                getGrid().getDataProvider().refreshItem(rowProjection.apply(savedItem));
+                            } else if (!rearm || ++deferredGridRefreshes >= saveAndNewRefreshInterval) {
+                                // Deferred refreshes happen after more saves or when the editor closes
+                                refreshGrid();
+                            }
                         }
                     }
+
+                    if (rearm) {
+                        ComponentUtil.fireEvent(this, new NewEvent<>(this, false, null, null));
+                    }
                 }));
 
         ComponentUtil.addListener(this, DeleteEvent.class, (ComponentEventListener)
                 ((ComponentEventListener<DeleteEvent<E>>) e -> {
                     try {
-                        deleteListeners.forEach(listener -> listener.onComponentEvent(e));
+                        fire(CrudMetrics.DELETE, deleteListeners, e);
+                        removeDraft();
                         setOpened(false);
                         getEditor().clear();
                     } finally {
-                        getGrid().getDataProvider().refreshAll();
+                        refreshGrid();
                     }
                 }));
     }
 
+    private <T extends ComponentEvent<?>> void fire(String operation, CrudListeners<T> listeners, T event) {
+        if (metrics == null) {
+            listeners.fire(event);
+            return;
+        }
+
+        final long start = System.nanoTime();
+        try {
+            listeners.fire(event);
+        } catch (CrudConflictException ex) {
+            // A conflict is resolved by the user rather than a failure of the operation
+            metrics.increment(CrudMetrics.CONFLICTS, 1);
+            throw ex;
+        } catch (RuntimeException ex) {
+            metrics.recordFailure(operation, ex);
+            throw ex;
+        } finally {
+            metrics.recordTime(operation, System.nanoTime() - start);
+        }
+    }
+
+    private void refreshGrid() {
+        deferredGridRefreshes = 0;
+        if (getGrid().getDataProvider() != null) {
+            final long start = System.nanoTime();
+            if (getGrid() instanceof CrudGrid) {
+                ((CrudGrid<E>) getGrid()).refreshAllItems();
+            } else {
+                getGrid().getDataProvider().refreshAll();
+            }
+            if (metrics != null) {
+                metrics.recordTime(CrudMetrics.REFRESH, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void releasePinnedVersion() {
+        if (getGrid() instanceof CrudGrid) {
+            ((CrudGrid<E>) getGrid()).releasePinnedVersion();
+        }
+    }
+
+    private E createNewItem() throws ReflectiveOperationException {
+        if (newItemSupplier != null) {
+            return newItemSupplier.get();
+        }
+
+        if (beanConstructor == null || beanConstructor.getDeclaringClass() != getBeanType()) {
+            beanConstructor = getBeanType().getConstructor();
+        }
+        return beanConstructor.newInstance();
+    }
+
+    /*
+     * Drafts are only kept for existing items which the grid data provider can identify.
+     */
+    private Optional<Object> getDraftKey() {
+        final DataProvider<E, ?> dataProvider = grid != null ? grid.getDataProvider() : null;
+        if (editSourceItem == null || dataProvider == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(dataProvider.getId(editSourceItem));
+    }
+
+    private void closeEditor() {
+        removeDraft();
+        setOpened(false);
+        getEditor().clear();
+        clearActiveItem();
+        if (deferredGridRefreshes > 0) {
+            refreshGrid();
+        }
+    }
+
+    private void saveDraft(Serializable draft) {
+        if (draftStore != null) {
+            getDraftKey().ifPresent(key -> draftStore.save(key, draft));
+        }
+    }
+
+    private void removeDraft() {
+        saveDraft(null);
+    }
+
+    private void resolveConflict(E currentItem) {
+        final List<CrudPropertyChange> changes = getEditor().getItemChanges().orElse(Collections.emptyList());
+        if (currentItem != null && getEditor().mergeItemChanges(currentItem)) {
+            editVersion = versionProvider != null ? versionProvider.apply(currentItem) : null;
+            setDirty(true);
+        }
+
+        final ConflictEvent<E> event = new ConflictEvent<>(this, currentItem, changes);
+        conflictListeners.fire(event);
+    }
+
     /**
      * Initiates an item edit from the server-side.
      * This sets the supplied item as the working bean and opens the edit dialog.
@@ -244,7 +430,6 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
         if (editMode == EditMode.NEW_ITEM) {
             event = new NewEvent<>(this, false, item, null);
         } else {
-            setDirty(false);
             event = new EditEvent<>(this, false, item);
         }
 
@@ -260,10 +445,25 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * Opens or closes the editor. In most use cases opening or closing the editor
      * is automatically done by the component and this method does not need to be called.
      *
+     * <p>
+     * The state is sent to the client as a property, together with the other changes made while
+     * handling the same request. The property is synchronized back when the client opens or closes
+     * the editor by itself, so that setting the state the client already has is not skipped.
+     *
      * @param opened true to open or false to close
      */
     public void setOpened(boolean opened) {
-        getElement().callFunction("set", "editorOpened", opened);
+        getElement().setProperty("editorOpened", opened);
+    }
+
+    /**
+     * Gets whether the editor is opened, as last set by the server or reported by the client.
+     *
+     * @return true if the editor is opened
+     */
+    @Synchronize(property = "editorOpened", value = "editor-opened-changed")
+    public boolean isOpened() {
+        return getElement().getProperty("editorOpened", false);
     }
 
     /**
@@ -272,12 +472,27 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * A dirty Crud has its editor Save button enabled. Ideally a Crud automatically detects if it is dirty
      * based on interactions with the form fields within it but in some special cases (e.g with composites)
      * this might not be automatically detected. For such cases this method could be used to explicitly
-     * set the dirty state of the Crud editor.
+     * set the dirty state of the Crud editor. Editors that track their dirty state, such as
+     * {@link BinderCrudEditor}, update it automatically through
+     * {@link CrudEditor#addDirtyChangeListener(com.vaadin.flow.function.SerializableConsumer)}.
+     * <p>
+     * The state is sent to the client as a property, so setting an unchanged state sends nothing.
+     * The property is synchronized back when the client marks the editor dirty by itself.
      *
      * @param dirty true if dirty and false if otherwise.
      */
     public void setDirty(boolean dirty) {
-        getElement().executeJs("this.set('__isDirty', $0)", dirty);
+        getElement().setProperty("__isDirty", dirty);
+    }
+
+    /**
+     * Gets whether the editor is dirty, as last set by the server or reported by the client.
+     *
+     * @return true if the editor is dirty
+     */
+    @Synchronize(property = "__isDirty", value = "__is-dirty-changed")
+    public boolean isDirty() {
+        return getElement().getProperty("__isDirty", false);
     }
 
     /**
@@ -308,6 +523,8 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
 
         if (this.grid == null) {
             setGrid(new CrudGrid<>(beanType, true, true));
+        } else {
+            updateGridProperties();
         }
     }
 
@@ -343,6 +560,11 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
         if (grid.getElement().getParent() == null) {
             getElement().appendChild(grid.getElement());
         }
+
+        updateGridProperties();
+        if (grid instanceof CrudGrid) {
+            ((CrudGrid<E>) grid).setMetrics(metrics);
+        }
     }
 
     /**
@@ -351,6 +573,10 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return the crud editor
      */
     public CrudEditor<E> getEditor() {
+        if (editor == null && editorFactory != null) {
+            attachEditor(editorFactory.get());
+        }
+
         if (editor == null) {
             throw new IllegalStateException("The editor must be initialized before event processing");
         }
@@ -368,19 +594,266 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
     public void setEditor(CrudEditor<E> editor) {
         Objects.requireNonNull(editor, "Editor cannot be null");
 
-        if (this.editor != null
-                && this.editor.getView() != null
-                && this.editor.getView().getElement().getParent() == getElement()) {
-            this.editor.getView().getElement().removeFromParent();
+        releaseEditor();
+        editorFactory = null;
+        attachEditor(editor);
+    }
+
+    /**
+     * Sets a factory that creates the editor when it is first needed, typically when the user
+     * opens a new or an existing item for editing. This avoids building the fields and bindings
+     * of editors that are never opened.
+     * <p>
+     * If the factory is a {@link CrudEditorPool}, the editor is returned to the pool when this
+     * Crud is removed from its UI, and a new one is taken from the pool when it is needed again.
+     * Moving the Crud within the UI keeps its editor.
+     *
+     * <pre>
+     * {@code
+     *   crud.setEditorFactory(() -> {
+     *       Binder<Person> binder = new Binder<>(Person.class);
+     *       return new BinderCrudEditor<>(binder, createForm(binder));
+     *   });
+     * }
+     * </pre>
+     *
+     * @param editorFactory the function creating the editor, not {@code null}
+     * @see #setEditor(CrudEditor)
+     */
+    public void setEditorFactory(SerializableSupplier<CrudEditor<E>> editorFactory) {
+        Objects.requireNonNull(editorFactory, "Editor factory cannot be null");
+
+        releaseEditor();
+        this.editorFactory = editorFactory;
+    }
+
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
+
+        getElement().executeJs(PREVENT_DEFAULTS_JS);
+        getElement().executeJs(NOTIFY_DIRTY_JS);
+    }
+
+    @Override
+    protected void onDetach(DetachEvent detachEvent) {
+        super.onDetach(detachEvent);
+
+        if (editorFactory instanceof CrudEditorPool) {
+            final UI ui = detachEvent.getUI();
+            if (ui.isClosing()) {
+                releaseEditor();
+            } else {
+                // A move within the layout attaches the crud again before the response is written
+                ui.beforeClientResponse(ui, context -> {
+                    if (!getUI().isPresent()) {
+                        releaseEditor();
+                    }
+                });
+            }
+        }
+    }
+
+    private void releaseEditor() {
+        if (editor == null) {
+            return;
+        }
+
+        if (editor.getView() != null && editor.getView().getElement().getParent() == getElement()) {
+            editor.getView().getElement().removeFromParent();
+        }
+        if (editorDirtyRegistration != null) {
+            editorDirtyRegistration.remove();
+            editorDirtyRegistration = null;
         }
+        if (editorDraftRegistration != null) {
+            editorDraftRegistration.remove();
+            editorDraftRegistration = null;
+        }
+        if (editorFactory instanceof CrudEditorPool) {
+            ((CrudEditorPool<E>) editorFactory).release(editor);
+        }
+
+        editor = null;
+        editSourceItem = null;
+    }
+
+    private void attachEditor(CrudEditor<E> editor) {
+        Objects.requireNonNull(editor, "Editor cannot be null");
 
         this.editor = editor;
+        this.editorDirtyRegistration = editor.addDirtyChangeListener(this::setDirty);
+        this.editorDraftRegistration = editor.addDraftListener(this::saveDraft);
 
         // It might already have a parent e.g when injected from a template
         if (editor.getView() != null && editor.getView().getElement().getParent() == null) {
             editor.getView().getElement().setAttribute(SLOT_KEY, FORM_SLOT_NAME);
             getElement().appendChild(editor.getView().getElement());
         }
+
+        updateGridProperties();
+    }
+
+    /*
+     * Makes a CrudGrid load the properties needed by the editor along with those of its columns,
+     * unless the edit item loader loads the edited items separately. All properties are loaded
+     * while the properties used by the editor are not known.
+     */
+    private void updateGridProperties() {
+        if (!(grid instanceof CrudGrid) || beanType == null) {
+            return;
+        }
+
+        final Set<String> editorProperties;
+        if (customEditItemLoader) {
+            editorProperties = Collections.emptySet();
+        } else if (editor != null) {
+            editorProperties = editor.getRequiredProperties(CrudBeanMetadata.get(beanType).getColumnKeys())
+                    .orElse(null);
+        } else {
+            editorProperties = null;
+        }
+        ((CrudGrid<E>) grid).setEditorProperties(editorProperties);
+    }
+
+    /**
+     * Sets the function that creates the items the user starts to create with the New button.
+     * By default new items are created with the public no-argument constructor of the bean type.
+     * <p>
+     * A {@link PrototypeItemSupplier} creates new items as copies of a prototype item, so that
+     * default values which are expensive to compute are only computed once.
+     *
+     * <pre>
+     * {@code
+     *   crud.setNewItemSupplier(() -> new Person(defaultCountry));
+     * }
+     * </pre>
+     *
+     * @param newItemSupplier the function creating new items,
+     *                        or {@code null} to use the no-argument constructor
+     */
+    public void setNewItemSupplier(SerializableSupplier<E> newItemSupplier) {
+        this.newItemSupplier = newItemSupplier;
+    }
+
+    /**
+     * Sets whether saving a new item immediately starts the creation of another new item,
+     * for rapid data entry. In this mode the editor stays open after a new item is saved and
+     * is given a new item in the same response, as if the user clicked the New button.
+     * Saving existing items closes the editor as usual.
+     *
+     * @param saveAndNew true to keep creating new items after saving one, false to close
+     *                   the editor after saving
+     * @see #setSaveAndNewRefreshInterval(int)
+     */
+    public void setSaveAndNew(boolean saveAndNew) {
+        this.saveAndNew = saveAndNew;
+    }
+
+    /**
+     * Gets whether saving a new item immediately starts the creation of another new item.
+     *
+     * @return true if the editor stays open for another new item after saving one
+     * @see #setSaveAndNew(boolean)
+     */
+    public boolean isSaveAndNew() {
+        return saveAndNew;
+    }
+
+    /**
+     * Sets after how many saves of new items the grid is refreshed in save and new mode.
+     * Refreshing the grid after every save limits how fast items can be entered, so the
+     * refreshes can be batched. The grid is also refreshed when the editor is closed.
+     * The default is 1, which refreshes the grid after every save.
+     *
+     * @param saveAndNewRefreshInterval the number of saves between grid refreshes, at least 1
+     * @see #setSaveAndNew(boolean)
+     */
+    public void setSaveAndNewRefreshInterval(int saveAndNewRefreshInterval) {
+        if (saveAndNewRefreshInterval < 1) {
+            throw new IllegalArgumentException("Refresh interval must be at least 1");
+        }
+        this.saveAndNewRefreshInterval = saveAndNewRefreshInterval;
+    }
+
+    /**
+     * Sets the function that provides the instance bound to the editor when an existing item is edited.
+     * By default the item shown in the grid is edited as is.
+     * <p>
+     * The function receives the grid item and can return a copy of it so that the grid items, which
+     * may be shared between sessions, are never modified by the editor. It can also load a fully
+     * initialized entity for a grid item that only holds the data needed for display. Once a
+     * loader is set, a {@link CrudGrid} only asks its data provider for the properties of its
+     * columns, see {@link CrudFilter#getProperties()}.
+     *
+     * <pre>
+     * {@code
+     *   crud.setEditItemLoader(Person::clone);
+     * }
+     * </pre>
+     *
+     * @param editItemLoader the function providing the item to edit, not {@code null}
+     */
+    public void setEditItemLoader(SerializableFunction<E, E> editItemLoader) {
+        this.editItemLoader = Objects.requireNonNull(editItemLoader, "Edit item loader cannot be null");
+        this.customEditItemLoader = true;
+        updateGridProperties();
+    }
+
+    /**
+     * Sets the function that turns a saved item into the item shown in its grid row.
+     * <p>
+     * By default the whole grid is reloaded after an item is saved. When a row projection is set,
+     * saving an existing item only refreshes its row with the projection of the saved item, so
+     * that a grid showing lightweight items, with a full item loaded for editing by
+     * {@link #setEditItemLoader(SerializableFunction)}, does not have to query all rows again.
+     * New items still reload the whole grid. The data provider of the grid must identify items
+     * by their id, see {@link com.vaadin.flow.data.provider.DataProvider#getId(Object)}.
+     *
+     * <pre>
+     * {@code
+     *   crud.setEditItemLoader(row -> personService.load(row.getId()));
+     *   crud.setRowProjection(person -> personService.toRow(person));
+     * }
+     * </pre>
+     *
+     * @param rowProjection the function providing the grid row of a saved item,
+     *                      or {@code null} to reload the whole grid after saving
+     */
+    public void setRowProjection(SerializableFunction<E, E> rowProjection) {
+        this.rowProjection = rowProjection;
+    }
+
+    /**
+     * Sets the function reading the version of an item, for saving with optimistic locking.
+     * The version of an existing item is captured when it is opened for editing and available
+     * to save listeners through {@link SaveEvent#getVersion()}. A save listener detecting that the
+     * stored item has another version throws a {@link CrudConflictException}, which keeps the
+     * editor open with the user's changes merged onto the current item.
+     *
+     * @param versionProvider the function reading the version of an item,
+     *                        or {@code null} to not capture versions
+     * @see #addConflictListener(ComponentEventListener)
+     */
+    public void setVersionProvider(ValueProvider<E, ?> versionProvider) {
+        this.versionProvider = versionProvider;
+    }
+
+    /**
+     * Sets the store for drafts of unsaved edits of existing items. A draft is saved whenever the
+     * editor reports a change, and restored the next time the item is opened for editing. Drafts
+     * are keyed by the id that the grid data provider gives to the item, see
+     * {@link com.vaadin.flow.data.provider.DataProvider#getId(Object)}, and are removed when the item
+     * is saved or deleted, or the edit is cancelled. No drafts are kept while the grid has no data
+     * provider.
+     * <p>
+     * The editor must support drafts, see {@link CrudEditor#addDraftListener(com.vaadin.flow.function.SerializableConsumer)}.
+     *
+     * @param draftStore the draft store, or {@code null} to not keep drafts
+     * @see WriteBehindCrudDraftStore
+     */
+    public void setDraftStore(CrudDraftStore draftStore) {
+        this.draftStore = draftStore;
     }
 
     /**
@@ -414,16 +887,16 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
                         CrudEditorPosition.OVERLAY);
     }
 
-    private Registration gridItemClickRegistration;
-
     /**
      * Sets the option to open item to edit by row click.
      * <p>
-     * If enabled, it removes the edit column created by {@link CrudGrid}.
+     * If enabled, it removes the edit column created by {@link CrudGrid}. A row click is then
+     * handled from the edit event alone, without listening to clicks on the grid.
      *
      * @param editOnClick {@code true} to enable it ({@code false}, by default).
      */
     public void setEditOnClick(boolean editOnClick) {
+        final boolean wasEditOnClick = isEditOnClick();
         getElement().setProperty("editOnClick", editOnClick);
         Grid<E> grid = getGrid();
 
@@ -435,10 +908,8 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
                     removeEditColumn(grid);
                 }
             }
-            gridItemClickRegistration = grid.addItemClickListener(e -> this.gridActiveItem = e.getItem());
-        } else if (gridItemClickRegistration != null) {
+        } else if (wasEditOnClick) {
             clearActiveItem();
-            gridItemClickRegistration.remove();
             if (grid instanceof CrudGrid) {
                 addEditColumn(grid);
                 grid.setSelectionMode(Grid.SelectionMode.NONE);
@@ -526,6 +997,31 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
         }
     }
 
+    /**
+     * Sets the metrics receiving the duration of listeners and grid refreshes, the exceptions
+     * thrown by listeners and the number of saves rejected by validation. If the grid is a
+     * {@link CrudGrid}, the metrics also receive the duration of fetching and counting grid items
+     * and the number of items fetched.
+     *
+     * @param metrics the metrics, or {@code null} to stop recording
+     * @see InMemoryCrudMetrics
+     */
+    public void setMetrics(CrudMetrics metrics) {
+        this.metrics = metrics;
+        if (grid instanceof CrudGrid) {
+            ((CrudGrid<E>) grid).setMetrics(metrics);
+        }
+    }
+
+    /**
+     * Gets the metrics of this crud.
+     *
+     * @return the metrics, or {@code null} if none are recorded
+     */
+    public CrudMetrics getMetrics() {
+        return metrics;
+    }
+
     private static List<String> variantNames(CrudVariant... variants) {
         return Arrays.stream(variants)
                 .map(CrudVariant::getVariantName)
@@ -539,8 +1035,7 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return a handle that can be used to unregister the listener
      */
     public Registration addNewListener(ComponentEventListener<NewEvent<E>> listener) {
-        newListeners.add(listener);
-        return () -> newListeners.remove(listener);
+        return newListeners.add(listener);
     }
 
     /**
@@ -550,8 +1045,7 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return a handle that can be used to unregister the listener
      */
     public Registration addEditListener(ComponentEventListener<EditEvent<E>> listener) {
-        editListeners.add(listener);
-        return () -> editListeners.remove(listener);
+        return editListeners.add(listener);
     }
 
     /**
@@ -562,8 +1056,7 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return a handle that can be used to unregister the listener
      */
     public Registration addSaveListener(ComponentEventListener<SaveEvent<E>> listener) {
-        saveListeners.add(listener);
-        return () -> saveListeners.remove(listener);
+        return saveListeners.add(listener);
     }
 
     /**
@@ -574,8 +1067,19 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return a handle that can be used to unregister the listener
      */
     public Registration addCancelListener(ComponentEventListener<CancelEvent<E>> listener) {
-        cancelListeners.add(listener);
-        return () -> cancelListeners.remove(listener);
+        return cancelListeners.add(listener);
+    }
+
+    /**
+     * Registers a listener to be notified when saving an item failed with a
+     * {@link CrudConflictException} because the item was changed concurrently.
+     * The editor stays open so that the user can review the merged item and save again.
+     *
+     * @param listener a listener to be notified
+     * @return a handle that can be used to unregister the listener
+     */
+    public Registration addConflictListener(ComponentEventListener<ConflictEvent<E>> listener) {
+        return conflictListeners.add(listener);
     }
 
     /**
@@ -585,8 +1089,7 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * @return a handle that can be used to unregister the listener
      */
     public Registration addDeleteListener(ComponentEventListener<DeleteEvent<E>> listener) {
-        deleteListeners.add(listener);
-        return () -> deleteListeners.remove(listener);
+        return deleteListeners.add(listener);
     }
 
     /**
@@ -624,21 +1127,51 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
      * A helper method to add an edit column to a grid.
      * Clicking on the edit cell for a row opens the item for editing in the editor.
      * Additionally, the i18n object is used for setting the aria-label for the button, improving accessibility.
+     * <p>
+     * The template of the column does not use any item properties, so it adds no data to the
+     * rows sent to the grid.
      *
      * @param grid the grid in which to add the edit column
      * @param crudI18n the i18n object for localizing the accessibility of the edit column
+     * @see #setEditColumnI18n(Grid, CrudI18n)
      */
     public static void addEditColumn(Grid grid, CrudI18n crudI18n) {
-        grid.addColumn(TemplateRenderer.of(createEditColumnTemplate(crudI18n)))
+        final Grid.Column<?> column = grid.addColumn(TemplateRenderer.of(createEditColumnTemplate(crudI18n)))
                 .setKey(EDIT_COLUMN_KEY)
                 .setWidth("4em")
                 .setFlexGrow(0);
+        ComponentUtil.setData(column, EDIT_LABEL_DATA_KEY, crudI18n.getEditLabel());
     }
 
     private static String createEditColumnTemplate(CrudI18n crudI18n) {
         return "<vaadin-crud-edit aria-label=\"" + crudI18n.getEditLabel() + "\"></vaadin-crud-edit>";
     }
 
+    /**
+     * Updates the aria-label of the edit column of a grid, if it has one. The column is only
+     * replaced when the label changes, and it keeps its position among the other columns.
+     *
+     * @param grid the grid containing the edit column
+     * @param crudI18n the i18n object for localizing the accessibility of the edit column
+     * @see #addEditColumn(Grid, CrudI18n)
+     */
+    @SuppressWarnings("unchecked")
+    public static void setEditColumnI18n(Grid grid, CrudI18n crudI18n) {
+        final Grid.Column<?> column = grid.getColumnByKey(EDIT_COLUMN_KEY);
+        if (column == null || crudI18n.getEditLabel().equals(ComponentUtil.getData(column, EDIT_LABEL_DATA_KEY))) {
+            return;
+        }
+
+        final List<Grid.Column<?>> columns = new ArrayList<>(grid.getColumns());
+        final int index = columns.indexOf(column);
+        grid.removeColumn(column);
+        addEditColumn(grid, crudI18n);
+        if (index < columns.size() - 1) {
+            columns.set(index, grid.getColumnByKey(EDIT_COLUMN_KEY));
+            grid.setColumnOrder(columns);
+        }
+    }
+
     /**
      * Removes the crud edit column from a grid
      *
@@ -705,12 +1238,25 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
          *
          * @param source     the source component
          * @param fromClient <code>true</code> if the event originated from the client
-         * @param ignored an ignored parameter for a side effect
          */
-        public CancelEvent(Crud<E> source, boolean fromClient,
-                           @EventData(EVENT_PREVENT_DEFAULT_JS) Object ignored) {
+        public CancelEvent(Crud<E> source, boolean fromClient) {
             super(source, fromClient);
         }
+
+        /**
+         * Creates a new event using the given source and indicator whether the
+         * event originated from the client side or the server side.
+         *
+         * @param source     the source component
+         * @param fromClient <code>true</code> if the event originated from the client
+         * @param ignored    an ignored parameter
+         * @deprecated the client side defaults are no longer prevented through event data, use
+         *             {@link #CancelEvent(Crud, boolean)} instead
+         */
+        @Deprecated
+        public CancelEvent(Crud<E> source, boolean fromClient, Object ignored) {
+            this(source, fromClient);
+        }
     }
 
     /**
@@ -727,12 +1273,25 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
          *
          * @param source     the source component
          * @param fromClient <code>true</code> if the event originated from the client
-         * @param ignored an ignored parameter for a side effect
          */
-        public DeleteEvent(Crud<E> source, boolean fromClient,
-                           @EventData(EVENT_PREVENT_DEFAULT_JS) Object ignored) {
+        public DeleteEvent(Crud<E> source, boolean fromClient) {
             super(source, fromClient);
         }
+
+        /**
+         * Creates a new event using the given source and indicator whether the
+         * event originated from the client side or the server side.
+         *
+         * @param source     the source component
+         * @param fromClient <code>true</code> if the event originated from the client
+         * @param ignored    an ignored parameter
+         * @deprecated the client side defaults are no longer prevented through event data, use
+         *             {@link #DeleteEvent(Crud, boolean)} instead
+         */
+        @Deprecated
+        public DeleteEvent(Crud<E> source, boolean fromClient, Object ignored) {
+            this(source, fromClient);
+        }
     }
 
     /**
@@ -751,15 +1310,28 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
          *
          * @param source     the source component
          * @param fromClient <code>true</code> if the event originated from the client
-         * @param item the item to be edited, provided in JSON as internally represented in Grid
-         * @param ignored an ignored parameter for a side effect
+         * @param key the key of the item to be edited, as assigned by the grid
          */
         public EditEvent(Crud<E> source, boolean fromClient,
-                         @EventData("event.detail.item") JsonObject item,
-                         @EventData(EVENT_PREVENT_DEFAULT_JS) Object ignored) {
+                         @EventData("event.detail.item.key") String key) {
             super(source, fromClient);
-            this.item = source.getGrid().getDataCommunicator()
-                    .getKeyMapper().get(item.getString("key"));
+            this.item = source.getGrid().getDataCommunicator().getKeyMapper().get(key);
+        }
+
+        /**
+         * Creates a new event using the given source and indicator whether the
+         * event originated from the client side or the server side.
+         *
+         * @param source     the source component
+         * @param fromClient <code>true</code> if the event originated from the client
+         * @param item the item to be edited, provided in JSON as internally represented in Grid
+         * @param ignored an ignored parameter
+         * @deprecated the client only sends the key of the edited item, use
+         *             {@link #EditEvent(Crud, boolean, String)} instead
+         */
+        @Deprecated
+        public EditEvent(Crud<E> source, boolean fromClient, JsonObject item, Object ignored) {
+            this(source, fromClient, item.getString("key"));
         }
 
         private EditEvent(Crud<E> source, boolean fromClient, E item) {
@@ -789,13 +1361,26 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
          *
          * @param source     the source component
          * @param fromClient <code>true</code> if the event originated from the client
-         * @param ignored    an ignored parameter for a side effect
          */
-        public NewEvent(Crud<E> source, boolean fromClient,
-                        @EventData(EVENT_PREVENT_DEFAULT_JS) Object ignored) {
+        public NewEvent(Crud<E> source, boolean fromClient) {
             super(source, fromClient);
         }
 
+        /**
+         * Creates a new event using the given source and indicator whether the
+         * event originated from the client side or the server side.
+         *
+         * @param source     the source component
+         * @param fromClient <code>true</code> if the event originated from the client
+         * @param ignored    an ignored parameter
+         * @deprecated the client side defaults are no longer prevented through event data, use
+         *             {@link #NewEvent(Crud, boolean)} instead
+         */
+        @Deprecated
+        public NewEvent(Crud<E> source, boolean fromClient, Object ignored) {
+            this(source, fromClient);
+        }
+
         /**
          * Private constructor for server-initiated edits
          *
@@ -830,12 +1415,103 @@ public class Crud<E> extends Component implements HasSize, HasTheme {
          *
          * @param source     the source component
          * @param fromClient <code>true</code> if the event originated from the client
-         * @param ignored an ignored parameter for a side effect
          */
-        public SaveEvent(Crud<E> source, boolean fromClient,
-                         @EventData(EVENT_PREVENT_DEFAULT_JS) Object ignored) {
+        public SaveEvent(Crud<E> source, boolean fromClient) {
             super(source, fromClient);
         }
+
+        /**
+         * Creates a new event using the given source and indicator whether the
+         * event originated from the client side or the server side.
+         *
+         * @param source     the source component
+         * @param fromClient <code>true</code> if the event originated from the client
+         * @param ignored    an ignored parameter
+         * @deprecated the client side defaults are no longer prevented through event data, use
+         *             {@link #SaveEvent(Crud, boolean)} instead
+         */
+        @Deprecated
+        public SaveEvent(Crud<E> source, boolean fromClient, Object ignored) {
+            this(source, fromClient);
+        }
+
+        /**
+         * Gets the version of the edited item captured when it was opened for editing.
+         *
+         * @return the version, or {@code null} for new items or if no version provider is set
+         * @see Crud#setVersionProvider(ValueProvider)
+         */
+        public Object getVersion() {
+            return getSource().editVersion;
+        }
+
+        /**
+         * Gets the property level changes written to the item, allowing a backend to update
+         * only the changed properties.
+         *
+         * @return the changed properties, or an empty optional if the editor does not track changes
+         * @see CrudEditor#getItemChanges()
+         */
+        public Optional<List<CrudPropertyChange>> getChanges() {
+            return getSource().getEditor().getItemChanges();
+        }
+
+        /**
+         * Checks whether the save changed the item. This is true for new items, and for existing
+         * items unless the editor tracks changes and none of the item properties changed, in
+         * which case saving can be skipped.
+         *
+         * @return false if the item is known to be unchanged, true otherwise
+         */
+        public boolean hasChanges() {
+            return getSource().editSourceItem == null
+                    || getChanges().map(changes -> !changes.isEmpty()).orElse(true);
+        }
+    }
+
+    /**
+     * Event fired when saving an item failed because it was changed concurrently.
+     * {@link #getItem()} returns the item in the editor, which is the current item with the
+     * user's changes applied if the editor could merge them.
+     *
+     * @param <E> the bean type
+     * @see CrudConflictException
+     */
+    public static class ConflictEvent<E> extends CrudEvent<E> {
+
+        private final E currentItem;
+        private final List<CrudPropertyChange> changes;
+
+        /**
+         * Creates a new event.
+         *
+         * @param source the source component
+         * @param currentItem the current version of the item, or {@code null} if it was deleted
+         * @param changes the changes made by the user
+         */
+        public ConflictEvent(Crud<E> source, E currentItem, List<CrudPropertyChange> changes) {
+            super(source, false);
+            this.currentItem = currentItem;
+            this.changes = changes;
+        }
+
+        /**
+         * Gets the current version of the item, as provided by the {@link CrudConflictException}.
+         *
+         * @return the current item, or {@code null} if it was deleted
+         */
+        public E getCurrentItem() {
+            return currentItem;
+        }
+
+        /**
+         * Gets the changes the user made to the item, empty if the editor does not track changes.
+         *
+         * @return the changes made by the user
+         */
+        public List<CrudPropertyChange> getChanges() {
+            return changes;
+        }
     }
 
     /**
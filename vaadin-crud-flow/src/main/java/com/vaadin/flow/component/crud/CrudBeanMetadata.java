@@ -0,0 +1,89 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+
+import com.vaadin.flow.data.binder.BeanPropertySet;
+import com.vaadin.flow.data.binder.PropertyDefinition;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The column order of a bean type, shared by all {@link CrudGrid} instances for the type.
+ * <p>
+ * {@link BeanPropertySet} already caches the properties of each bean type, but every grid would
+ * still filter and sort them to find its columns. The sorted column keys of each bean type are
+ * computed once and cached for as long as the type is loaded. Instances are immutable and safe
+ * to use from any thread. A deserialized instance resolves to the cached metadata of its type.
+ *
+ * @param <E> the bean type
+ */
+final class CrudBeanMetadata<E> implements Serializable {
+
+    private static final MetadataCache CACHE = new MetadataCache();
+
+    private final Class<E> beanType;
+    private final transient List<String> columnKeys;
+
+    private CrudBeanMetadata(Class<E> beanType) {
+        this.beanType = beanType;
+        columnKeys = Collections.unmodifiableList(BeanPropertySet.get(beanType).getProperties()
+                .filter(property -> !property.isSubProperty())
+                .map(PropertyDefinition::getName)
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Gets the metadata of a bean type.
+     *
+     * @param beanType the bean type
+     * @param <E> the bean type
+     * @return the cached metadata of the bean type
+     */
+    @SuppressWarnings("unchecked")
+    static <E> CrudBeanMetadata<E> get(Class<E> beanType) {
+        return (CrudBeanMetadata<E>) CACHE.get(beanType);
+    }
+
+    /**
+     * Gets the keys of the columns generated for the bean type, in the order of the columns.
+     * These are the names of the top level properties, sorted alphabetically like {@code Grid}
+     * sorts its autogenerated columns.
+     *
+     * @return the column keys
+     */
+    List<String> getColumnKeys() {
+        return columnKeys;
+    }
+
+    private Object readResolve() {
+        return get(beanType);
+    }
+
+    private static final class MetadataCache extends ClassValue<CrudBeanMetadata<?>> {
+
+        @Override
+        protected CrudBeanMetadata<?> computeValue(Class<?> beanType) {
+            return new CrudBeanMetadata<>(beanType);
+        }
+    }
+}
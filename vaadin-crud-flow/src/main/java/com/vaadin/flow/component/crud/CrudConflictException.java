@@ -0,0 +1,74 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+/**
+ * Thrown by a {@link Crud} save listener when an item cannot be saved because it was changed
+ * concurrently, typically detected by comparing {@link Crud.SaveEvent#getVersion()} with the
+ * stored version of the item.
+ * <p>
+ * Instead of closing the editor and refreshing the grid, the Crud keeps the editor open, lets the
+ * editor {@link CrudEditor#mergeItemChanges(Object) merge} the user's changes onto the current
+ * item, and notifies its {@link Crud#addConflictListener conflict listeners}.
+ *
+ * <pre>
+ * {@code
+ *   crud.setVersionProvider(Person::getVersion);
+ *   crud.addSaveListener(e -> {
+ *       Person stored = personService.find(e.getItem().getId());
+ *       if (!stored.getVersion().equals(e.getVersion())) {
+ *           throw new CrudConflictException(stored);
+ *       }
+ *       personService.save(e.getItem());
+ *   });
+ * }
+ * </pre>
+ */
+public class CrudConflictException extends RuntimeException {
+
+    private final Object currentItem;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param currentItem the current version of the item, or {@code null} if it was deleted
+     */
+    public CrudConflictException(Object currentItem) {
+        this(currentItem, "The item was changed by someone else");
+    }
+
+    /**
+     * Creates a new exception with the given message.
+     *
+     * @param currentItem the current version of the item, or {@code null} if it was deleted
+     * @param message the detail message
+     */
+    public CrudConflictException(Object currentItem, String message) {
+        super(message);
+        this.currentItem = currentItem;
+    }
+
+    /**
+     * Gets the current version of the item.
+     *
+     * @return the current item, or {@code null} if it was deleted
+     */
+    public Object getCurrentItem() {
+        return currentItem;
+    }
+}
@@ -0,0 +1,66 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+import java.io.Serializable;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A store for drafts of the {@link CrudEditor} state, so that unsaved edits survive for instance
+ * a session timeout. A {@link Crud} with a draft store saves a draft of the editor whenever the
+ * user changes an existing item, and restores it when the item is opened for editing again.
+ * Drafts are removed when the item is saved, deleted or the edit is cancelled.
+ *
+ * <pre>
+ * {@code
+ *   crud.setDraftStore(new WriteBehindCrudDraftStore(
+ *           new FileCrudDraftStore(Paths.get("drafts", userName)), Duration.ofSeconds(5)));
+ * }
+ * </pre>
+ *
+ * @see FileCrudDraftStore
+ * @see WriteBehindCrudDraftStore
+ */
+public interface CrudDraftStore extends Serializable {
+
+    /**
+     * Saves the draft of an item, replacing any previous draft of the same item.
+     *
+     * @param key the key of the item, as provided by the grid data provider
+     * @param draft the draft, or {@code null} to remove the draft of the item
+     */
+    void save(Object key, Serializable draft);
+
+    /**
+     * Saves several drafts at once.
+     * The default implementation calls {@link #save(Object, Serializable)} for each draft.
+     *
+     * @param drafts the drafts by item key, {@code null} values remove drafts
+     */
+    default void saveAll(Map<Object, Serializable> drafts) {
+        drafts.forEach(this::save);
+    }
+
+    /**
+     * Loads the draft of an item.
+     *
+     * @param key the key of the item, as provided by the grid data provider
+     * @return the draft, or an empty optional if there is no draft for the item
+     */
+    Optional<Serializable> load(Object key);
+}
@@ -18,8 +18,14 @@ package com.vaadin.flow.component.crud;
  */
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.shared.Registration;
 
 import java.io.Serializable;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Interface representing a crud editor.
@@ -75,6 +81,91 @@ public interface CrudEditor<E> extends Serializable {
      */
     void writeItemChanges();
 
+    /**
+     * Returns the property level changes written to the item by {@link #writeItemChanges()}
+     * since the item was set to the editor. This allows a backend to update only the changed
+     * properties, or to skip saving altogether when nothing changed.
+     * <p>
+     * The default implementation does not track changes and returns an empty optional.
+     *
+     * @return the changed properties, or an empty optional if the editor does not track changes
+     */
+    default Optional<List<CrudPropertyChange>> getItemChanges() {
+        return Optional.empty();
+    }
+
+    /**
+     * Adds a listener notified when the editor becomes dirty, meaning that the user changed the
+     * edited values, or clean again, for instance when a new item is set. A {@link Crud} uses this
+     * to enable and disable the Save button.
+     * <p>
+     * The default implementation does not track the dirty state and never notifies the listener.
+     *
+     * @param listener the listener receiving the new dirty state
+     * @return a registration for removing the listener
+     */
+    default Registration addDirtyChangeListener(SerializableConsumer<Boolean> listener) {
+        return () -> {
+        };
+    }
+
+    /**
+     * Merges the changes made in the editor onto a newer version of the edited item, after saving
+     * failed with a {@link CrudConflictException} because the item was changed concurrently.
+     * When merged, the editor edits the given item with the user's changes applied, so that
+     * saving it again only overwrites the properties the user changed.
+     * <p>
+     * The default implementation does not merge and returns false.
+     *
+     * @param currentItem the current version of the edited item
+     * @return true if the editor now edits the given item, false if it could not merge
+     */
+    default boolean mergeItemChanges(E currentItem) {
+        return false;
+    }
+
+    /**
+     * Adds a listener notified with a draft of the editor state whenever the user changes the
+     * edited values. A {@link Crud} with a {@link CrudDraftStore} saves these drafts, and gives
+     * them back to {@link #restoreDraft(Serializable)} when the item is edited again.
+     * <p>
+     * The default implementation does not support drafts and never notifies the listener.
+     *
+     * @param listener the listener receiving the drafts
+     * @return a registration for removing the listener
+     */
+    default Registration addDraftListener(SerializableConsumer<Serializable> listener) {
+        return () -> {
+        };
+    }
+
+    /**
+     * Restores the editor state from a draft, after an item was set to the editor.
+     * <p>
+     * The default implementation ignores the draft.
+     *
+     * @param draft a draft previously provided to a draft listener
+     * @see #addDraftListener(SerializableConsumer)
+     */
+    default void restoreDraft(Serializable draft) {
+    }
+
+    /**
+     * Gets the properties of the edited item that the editor reads and writes, among the given
+     * properties of the bean type. When the grid of a {@link Crud} loads only the properties
+     * needed for its columns, it also loads these properties so that its items can be edited.
+     * <p>
+     * The default implementation does not know the properties and returns an empty optional,
+     * in which case the grid loads all properties.
+     *
+     * @param beanProperties the names of the properties of the bean type
+     * @return the properties used by the editor, or an empty optional if they are not known
+     * @see CrudFilter#getProperties()
+     */
+    default Optional<Set<String>> getRequiredProperties(Collection<String> beanProperties) {
+        return Optional.empty();
+    }
+
     /**
      * Returns the user interface of an editor.
      *
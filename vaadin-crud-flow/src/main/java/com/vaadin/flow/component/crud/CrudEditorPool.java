@@ -0,0 +1,147 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.function.SerializableSupplier;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A pool of identical {@link CrudEditor} instances which lets several {@link Crud} instances reuse
+ * editors, including their views with all fields and bindings, instead of building new ones.
+ * <p>
+ * A Crud using a pool as its {@link Crud#setEditorFactory(SerializableSupplier) editor factory}
+ * takes an editor from the pool the first time it is needed and returns it when the Crud is
+ * removed from the UI. An editor is only used by one Crud at a time, a new editor is created when
+ * the pool has no idle editors. Editor views are components, which cannot move from one UI to
+ * another, so a pool must only be used within one UI and is usually obtained with
+ * {@link #forUI(String, SerializableSupplier)}.
+ *
+ * <pre>
+ * {@code
+ *   crud.setEditorFactory(CrudEditorPool.forUI("person", this::createPersonEditor));
+ * }
+ * </pre>
+ *
+ * @param <E> the bean type
+ */
+public class CrudEditorPool<E> implements SerializableSupplier<CrudEditor<E>> {
+
+    /**
+     * The default maximum number of idle editors kept by a pool.
+     */
+    public static final int DEFAULT_MAX_IDLE = 2;
+
+    private static final String UI_DATA_KEY = CrudEditorPool.class.getName();
+
+    private final SerializableSupplier<CrudEditor<E>> factory;
+    private final int maxIdle;
+    private final Deque<CrudEditor<E>> idle = new ArrayDeque<>();
+
+    /**
+     * Creates a pool keeping at most {@link #DEFAULT_MAX_IDLE} idle editors.
+     *
+     * @param factory the function creating new editors
+     */
+    public CrudEditorPool(SerializableSupplier<CrudEditor<E>> factory) {
+        this(factory, DEFAULT_MAX_IDLE);
+    }
+
+    /**
+     * Creates a pool.
+     *
+     * @param factory the function creating new editors
+     * @param maxIdle the maximum number of idle editors to keep, surplus editors are discarded
+     */
+    public CrudEditorPool(SerializableSupplier<CrudEditor<E>> factory, int maxIdle) {
+        if (maxIdle < 0) {
+            throw new IllegalArgumentException("Maximum number of idle editors cannot be negative");
+        }
+        this.factory = Objects.requireNonNull(factory, "Factory cannot be null");
+        this.maxIdle = maxIdle;
+    }
+
+    /**
+     * Gets the pool with the given name of the current UI, creating it with the given
+     * factory if the UI does not have such a pool yet. Each browser tab and each reload
+     * has its own UI and thus its own pools.
+     *
+     * @param name the name of the pool, identifying the kind of editors it holds
+     * @param factory the function creating new editors, used only if the pool does not exist yet
+     * @param <E> the bean type
+     * @return the pool of the current UI
+     * @throws IllegalStateException if there is no current UI
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> CrudEditorPool<E> forUI(String name, SerializableSupplier<CrudEditor<E>> factory) {
+        Objects.requireNonNull(name, "Name cannot be null");
+        final UI ui = UI.getCurrent();
+        if (ui == null) {
+            throw new IllegalStateException("An editor pool can only be obtained with a current UI");
+        }
+
+        Map<String, CrudEditorPool<?>> pools = (Map<String, CrudEditorPool<?>>) ComponentUtil.getData(ui, UI_DATA_KEY);
+        if (pools == null) {
+            pools = new HashMap<>();
+            ComponentUtil.setData(ui, UI_DATA_KEY, pools);
+        }
+        return (CrudEditorPool<E>) pools.computeIfAbsent(name, key -> new CrudEditorPool<>(factory));
+    }
+
+    /**
+     * Takes an idle editor from the pool, or creates a new one if there are no idle editors.
+     *
+     * @return an editor
+     */
+    @Override
+    public synchronized CrudEditor<E> get() {
+        final CrudEditor<E> editor = idle.pollFirst();
+        return editor != null ? editor : factory.get();
+    }
+
+    /**
+     * Returns an editor to the pool. Its view must not be attached.
+     * <p>
+     * The editor is not cleared, since clearing its fields would run their value change
+     * listeners and validators while nobody uses the editor. It keeps its values until the Crud
+     * taking it from the pool sets an item, which a Crud always does before showing the editor.
+     *
+     * @param editor the editor taken from this pool
+     */
+    public synchronized void release(CrudEditor<E> editor) {
+        Objects.requireNonNull(editor, "Editor cannot be null");
+        if (idle.size() < maxIdle && !idle.contains(editor)) {
+            idle.addFirst(editor);
+        }
+    }
+
+    /**
+     * Gets the number of idle editors in the pool.
+     *
+     * @return the number of idle editors
+     */
+    public synchronized int getIdleCount() {
+        return idle.size();
+    }
+}
@@ -21,7 +21,9 @@ import com.vaadin.flow.data.provider.SortDirection;
 
 import java.io.Serializable;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * The filter type for use with {@link CrudGrid}.
@@ -31,6 +33,7 @@ public class CrudFilter implements Serializable {
 
     private final Map<String, String> constraints = new LinkedHashMap<>();
     private final Map<String, SortDirection> sortOrders = new LinkedHashMap<>();
+    private final Set<String> properties = new LinkedHashSet<>();
 
     /**
      * Returns the filter constraint applied to the grid as a map of column to filter text.
@@ -50,4 +53,20 @@ public class CrudFilter implements Serializable {
     public Map<String, SortDirection> getSortOrders() {
         return sortOrders;
     }
+
+    /**
+     * Returns the properties needed for the items loaded with this filter. A {@link CrudGrid}
+     * sets these to the keys of its visible columns, plus its
+     * {@linkplain CrudGrid#setIdentityProperties(String...) identity properties} and the
+     * properties used by the editor when its items are edited as loaded. Data providers may use this for loading only these
+     * properties from the backend, e.g. for selecting only the needed columns of a table.
+     * An empty set means that all properties are needed.
+     *
+     * @return the needed properties, or an empty set if all are needed
+     * @see CrudGrid#setColumnRange(int, int)
+     * @see CrudEditor#getRequiredProperties(java.util.Collection)
+     */
+    public Set<String> getProperties() {
+        return properties;
+    }
 }
@@ -17,15 +17,30 @@ package com.vaadin.flow.component.crud;
  * #L%
  */
 
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.Component;
 import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.grid.HeaderRow;
 import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.data.provider.ConfigurableFilterDataProvider;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.DataProviderListener;
+import com.vaadin.flow.data.provider.Query;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.shared.Registration;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A simple grid implementation for Crud that allows searching and sorting backed by a data provider.
@@ -34,10 +49,35 @@ import java.util.List;
  */
 public class CrudGrid<E> extends Grid<E> {
 
+    private static final String FILTER_KEY_ATTRIBUTE = "crud-filter";
+    private static final String FILTER_KEY_DATA = "event.target.getAttribute('" + FILTER_KEY_ATTRIBUTE + "')";
+    private static final String FILTER_VALUE_DATA = "event.target.value";
+    // Remembers what is typed into placeholders until the fields replacing them are rendered
+    private static final String TRACK_FILTER_INPUT_JS = "if (!this.__crudFilterInput) {"
+            + "this.__crudFilterInput = {};"
+            + "this.addEventListener('input', e => {"
+            + " const key = e.target.getAttribute && e.target.getAttribute('" + FILTER_KEY_ATTRIBUTE + "');"
+            + " if (key) { this.__crudFilterInput[key] = e.composedPath()[0].value; }"
+            + "});"
+            + "}";
+    private static final String RESTORE_FILTER_INPUT_JS = "const input = $0.__crudFilterInput;"
+            + "if (input && $1 in input) {"
+            + " if (this.value !== input[$1]) { this.value = input[$1]; }"
+            + " delete input[$1];"
+            + "}";
+
     private final Class<E> beanType;
     private final boolean autogenerated;
     private final CrudFilter filter = new CrudFilter();
     private DataProvider<E, ?> dataProvider;
+    private HeaderRow filterRow;
+    private final Map<String, Component> filterComponents = new HashMap<>();
+    private int columnRangeStart;
+    private int columnRangeSize;
+    private Set<String> editorProperties = Collections.emptySet();
+    private Set<String> identityProperties;
+    private CrudMetrics metrics;
+    private MeteredDataProvider<E> meteredDataProvider;
 
     /**
      * Instantiates a new CrudGrid for the supplied bean type.
@@ -50,11 +90,14 @@ public class CrudGrid<E> extends Grid<E> {
     }
 
     CrudGrid(Class<E> beanType, boolean enableDefaultFilters, boolean autogenerated) {
-        super(beanType);
+        super(beanType, false);
 
         this.beanType = beanType;
         this.autogenerated = autogenerated;
 
+        CrudBeanMetadata.get(beanType).getColumnKeys().forEach(this::addColumn);
+        updateFilterProperties();
+
         if (enableDefaultFilters) {
             setupFiltering();
         }
@@ -63,36 +106,70 @@ public class CrudGrid<E> extends Grid<E> {
         Crud.addEditColumn(this);
         setSelectionMode(SelectionMode.NONE);
 
-        ComponentUtil.addListener(this, CrudI18nUpdatedEvent.class, event -> {
-            if (Crud.hasEditColumn(this)) {
-                Crud.removeEditColumn(this);
-                Crud.addEditColumn(this, event.getI18n());
-            }
-        });
+        ComponentUtil.addListener(this, CrudI18nUpdatedEvent.class,
+                event -> Crud.setEditColumnI18n(this, event.getI18n()));
     }
 
     private void setupFiltering() {
-        final HeaderRow filterRow = this.appendHeaderRow();
-        getColumns().forEach(column -> {
-            final TextField field = new TextField();
-            field.getElement().setAttribute("crud-role", "Search");
+        filterRow = this.appendHeaderRow();
+        getColumns().forEach(column -> setFilterComponent(column, new FilterPlaceholder(column.getKey())));
 
-            field.addValueChangeListener(event -> {
-                filter.getConstraints().remove(column.getKey());
+        // A single listener on the grid upgrades a placeholder once it is focused or changed
+        for (String eventType : new String[] { "focusin", "change" }) {
+            final boolean focus = "focusin".equals(eventType);
+            getElement().addEventListener(eventType, event -> materializeFilter(
+                    event.getEventData().getString(FILTER_KEY_DATA),
+                    event.getEventData().getString(FILTER_VALUE_DATA), focus))
+                    .addEventData(FILTER_KEY_DATA)
+                    .addEventData(FILTER_VALUE_DATA)
+                    .setFilter("event.target.hasAttribute('" + FILTER_KEY_ATTRIBUTE + "')");
+        }
+    }
 
-                if (!field.isEmpty()) {
-                    filter.getConstraints().put(column.getKey(), event.getValue());
-                }
+    @Override
+    protected void onAttach(AttachEvent attachEvent) {
+        super.onAttach(attachEvent);
 
-                super.getDataProvider().refreshAll();
-            });
+        if (filterRow != null) {
+            getElement().executeJs(TRACK_FILTER_INPUT_JS);
+        }
+    }
+
+    /*
+     * Replaces the placeholder of a column with a text field bound to the filter.
+     */
+    void materializeFilter(String key, String value, boolean focus) {
+        final Column<E> column = getColumnByKey(key);
+        if (column == null || !(filterComponents.get(key) instanceof FilterPlaceholder)) {
+            return;
+        }
 
-            field.setValueChangeMode(ValueChangeMode.EAGER);
+        final TextField field = new TextField();
+        field.getElement().setAttribute("crud-role", "Search");
 
-            filterRow.getCell(column).setComponent(field);
-            field.setSizeFull();
-            field.setPlaceholder("Filter");
+        field.addValueChangeListener(event -> {
+            filter.getConstraints().remove(column.getKey());
+
+            if (!field.isEmpty()) {
+                filter.getConstraints().put(column.getKey(), event.getValue());
+            }
+
+            getDataCommunicator().reset();
         });
+
+        field.setValueChangeMode(ValueChangeMode.EAGER);
+
+        setFilterComponent(column, field);
+        field.setSizeFull();
+        field.setPlaceholder("Filter");
+        if (value != null && !value.isEmpty()) {
+            field.setValue(value);
+        }
+        // Characters typed into the placeholder after the event was sent are still in the browser
+        field.getElement().executeJs(RESTORE_FILTER_INPUT_JS, getElement(), key);
+        if (focus) {
+            field.focus();
+        }
     }
 
     private void setupSorting() {
@@ -101,10 +178,179 @@ public class CrudGrid<E> extends Grid<E> {
             filter.getSortOrders().clear();
             event.getSortOrder().forEach(e ->
                     filter.getSortOrders().put(e.getSorted().getKey(), e.getDirection()));
-            super.getDataProvider().refreshAll();
+            getDataCommunicator().reset();
         });
     }
 
+    /**
+     * Limits the generated columns shown at a time to a range of consecutive columns.
+     * This is meant for beans with so many properties that only a fraction of them fit on
+     * screen. Columns outside of the range are hidden, so that their values are not included
+     * in the data sent for the rows, and they have no filter components. Once the properties
+     * identifying the items are set with {@link #setIdentityProperties(String...)}, the keys of
+     * the columns in the range and the identifying properties are set as the
+     * {@linkplain CrudFilter#getProperties() properties} of the filter, telling the data provider
+     * which properties to load.
+     * <p>
+     * The range is not tied to the horizontal scroll position of the grid. The application moves
+     * it, for instance from buttons next to the grid, by calling this method again with another
+     * start. Filters of hidden columns stay in effect.
+     *
+     * @param start the index of the first column in the range
+     * @param size the number of columns in the range, or 0 to show all columns
+     */
+    public void setColumnRange(int start, int size) {
+        if (start < 0 || size < 0) {
+            throw new IllegalArgumentException("Column range start and size cannot be negative");
+        }
+
+        columnRangeStart = start;
+        columnRangeSize = size;
+
+        final List<String> keys = CrudBeanMetadata.get(beanType).getColumnKeys();
+        for (int i = 0; i < keys.size(); i++) {
+            final Column<E> column = getColumnByKey(keys.get(i));
+            if (column == null) {
+                continue;
+            }
+
+            final boolean visible = size == 0 || (i >= start && i < start + size);
+            column.setVisible(visible);
+            if (filterRow != null) {
+                updateFilterCell(column, visible);
+            }
+        }
+
+        updateFilterProperties();
+        getDataCommunicator().reset();
+    }
+
+    /**
+     * Gets the index of the first column in the column range.
+     *
+     * @return the index of the first column shown
+     * @see #setColumnRange(int, int)
+     */
+    public int getColumnRangeStart() {
+        return columnRangeStart;
+    }
+
+    /**
+     * Gets the number of columns in the column range.
+     *
+     * @return the number of columns shown, or 0 if all columns are shown
+     * @see #setColumnRange(int, int)
+     */
+    public int getColumnRangeSize() {
+        return columnRangeSize;
+    }
+
+    /**
+     * Sets the properties identifying an item, which are always loaded along with the properties
+     * of the visible columns. These are the properties read by the data provider for
+     * {@link DataProvider#getId(Object) item ids} or by {@code equals}, and the property read by the
+     * {@linkplain Crud#setVersionProvider(com.vaadin.flow.function.ValueProvider) version provider}
+     * of the Crud, if they are not shown in a column. Until these are set all properties are
+     * loaded, since the items loaded for a column range could otherwise not be told apart.
+     * Items identified by none of their properties can be declared with no arguments.
+     *
+     * <pre>
+     * {@code
+     *   grid.setIdentityProperties("id", "version");
+     * }
+     * </pre>
+     *
+     * @param properties the identifying properties
+     * @see CrudFilter#getProperties()
+     */
+    public void setIdentityProperties(String... properties) {
+        identityProperties = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList(properties)));
+        if (updateFilterProperties()) {
+            getDataCommunicator().reset();
+        }
+    }
+
+    /**
+     * Gets the properties identifying an item, which are always loaded.
+     *
+     * @return the identifying properties, or an empty optional if they have not been set
+     * @see #setIdentityProperties(String...)
+     */
+    public Optional<Set<String>> getIdentityProperties() {
+        return Optional.ofNullable(identityProperties);
+    }
+
+    /**
+     * Sets the properties needed by the editor of the Crud using this grid, which are loaded
+     * along with the properties of the visible columns.
+     *
+     * @param editorProperties the properties needed by the editor, or {@code null} if they
+     *                         are not known and all properties must be loaded
+     */
+    void setEditorProperties(Set<String> editorProperties) {
+        this.editorProperties = editorProperties;
+        if (updateFilterProperties()) {
+            getDataCommunicator().reset();
+        }
+    }
+
+    /*
+     * Sets the keys of the visible columns, the identity properties and the editor properties as
+     * the properties of the filter. The set is left empty, meaning all properties, when a visible column has no key
+     * or the identity or editor properties are not known.
+     */
+    private boolean updateFilterProperties() {
+        final Set<String> properties = new LinkedHashSet<>();
+        if (identityProperties != null && editorProperties != null) {
+            for (Column<E> column : getColumns()) {
+                if (column.isVisible() && column.getKey() == null) {
+                    properties.clear();
+                    break;
+                }
+                if (column.isVisible()) {
+                    properties.add(column.getKey());
+                }
+            }
+            if (!properties.isEmpty()) {
+                properties.addAll(identityProperties);
+                properties.addAll(editorProperties);
+            }
+        }
+
+        if (properties.equals(filter.getProperties())) {
+            return false;
+        }
+        filter.getProperties().clear();
+        filter.getProperties().addAll(properties);
+        return true;
+    }
+
+    /*
+     * Hidden columns only keep a filter field which holds a value, visible columns get a
+     * placeholder unless they already have a field.
+     */
+    private void updateFilterCell(Column<E> column, boolean visible) {
+        final Component component = filterComponents.get(column.getKey());
+        if (visible) {
+            if (component == null) {
+                setFilterComponent(column, new FilterPlaceholder(column.getKey()));
+            }
+        } else if (component instanceof FilterPlaceholder
+                || (component instanceof TextField && ((TextField) component).isEmpty())) {
+            filterComponents.remove(column.getKey());
+            filterRow.getCell(column).setText("");
+        }
+    }
+
+    Component getFilterComponent(String key) {
+        return filterComponents.get(key);
+    }
+
+    private void setFilterComponent(Column<E> column, Component component) {
+        filterComponents.put(column.getKey(), component);
+        filterRow.getCell(column).setComponent(component);
+    }
+
     /**
      * Gets the filter applied to this grid
      *
@@ -136,8 +382,10 @@ public class CrudGrid<E> extends Grid<E> {
         // Attempt a cast to ensure that the captured ? is actually a CrudFilter
         // Unfortunately this cannot be enforced by the compiler
         try {
+            DataProvider<E, CrudFilter> crudDataProvider = (DataProvider<E, CrudFilter>) dataProvider;
+            meteredDataProvider = new MeteredDataProvider<>(crudDataProvider, metrics);
             ConfigurableFilterDataProvider<E, Void, CrudFilter> provider
-                    = ((DataProvider<E, CrudFilter>) dataProvider).withConfigurableFilter();
+                    = meteredDataProvider.withConfigurableFilter();
 
             provider.setFilter(filter);
 
@@ -151,6 +399,44 @@ public class CrudGrid<E> extends Grid<E> {
         }
     }
 
+    /**
+     * Sets the metrics receiving the duration of fetching and counting items and the number of
+     * items fetched. Called by {@link Crud#setMetrics(CrudMetrics)}. The data provider is left as
+     * it is, so that the scroll position, selection and sort order of the grid are kept.
+     *
+     * @param metrics the metrics, or {@code null} to stop recording
+     */
+    void setMetrics(CrudMetrics metrics) {
+        this.metrics = metrics;
+        if (meteredDataProvider != null) {
+            meteredDataProvider.metrics = metrics;
+        }
+    }
+
+    /**
+     * Moves this grid to the newest items of a {@link KeyedCrudDataProvider}, without affecting
+     * the versions pinned by other grids sharing the data provider.
+     */
+    @SuppressWarnings("unchecked")
+    void releasePinnedVersion() {
+        if (dataProvider instanceof KeyedCrudDataProvider) {
+            ((KeyedCrudDataProvider<E>) dataProvider).release(filter);
+        }
+    }
+
+    /**
+     * Refreshes the items of all grids using the data provider. Only this grid moves to the newest
+     * items of a {@link KeyedCrudDataProvider}, the other grids keep their pinned versions.
+     */
+    @SuppressWarnings("unchecked")
+    void refreshAllItems() {
+        if (dataProvider instanceof KeyedCrudDataProvider) {
+            ((KeyedCrudDataProvider<E>) dataProvider).refreshAll(filter);
+        } else {
+            super.getDataProvider().refreshAll();
+        }
+    }
+
     void addCrudThemeVariants(List<String> variantNames) {
         if (autogenerated) {
             getThemeNames().addAll(variantNames);
@@ -162,4 +448,99 @@ public class CrudGrid<E> extends Grid<E> {
             getThemeNames().removeAll(variantNames);
         }
     }
+
+    /*
+     * A filter field that has not been used yet. It has the looks of the real text field,
+     * but no server side state or listeners of its own.
+     */
+    @Tag("vaadin-text-field")
+    private static class FilterPlaceholder extends Component {
+
+        private FilterPlaceholder(String key) {
+            getElement().setAttribute(FILTER_KEY_ATTRIBUTE, key);
+            getElement().setAttribute("crud-role", "Search");
+            getElement().setProperty("placeholder", "Filter");
+            getElement().getStyle().set("width", "100%").set("height", "100%");
+        }
+    }
+
+    /*
+     * Times the queries of the wrapped data provider while metrics are set. Fetched pages are
+     * collected before they are returned so that the time spent streaming from a lazy backend is
+     * included. The metrics can be swapped at any time without replacing the grid data provider.
+     */
+    private static final class MeteredDataProvider<E> implements DataProvider<E, CrudFilter> {
+
+        private final DataProvider<E, CrudFilter> delegate;
+        private volatile CrudMetrics metrics;
+
+        private MeteredDataProvider(DataProvider<E, CrudFilter> delegate, CrudMetrics metrics) {
+            this.delegate = delegate;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public boolean isInMemory() {
+            return delegate.isInMemory();
+        }
+
+        @Override
+        public int size(Query<E, CrudFilter> query) {
+            final CrudMetrics metrics = this.metrics;
+            if (metrics == null) {
+                return delegate.size(query);
+            }
+
+            final long start = System.nanoTime();
+            try {
+                return delegate.size(query);
+            } catch (RuntimeException ex) {
+                metrics.recordFailure(CrudMetrics.COUNT, ex);
+                throw ex;
+            } finally {
+                metrics.recordTime(CrudMetrics.COUNT, System.nanoTime() - start);
+            }
+        }
+
+        @Override
+        public Stream<E> fetch(Query<E, CrudFilter> query) {
+            final CrudMetrics metrics = this.metrics;
+            if (metrics == null) {
+                return delegate.fetch(query);
+            }
+
+            final long start = System.nanoTime();
+            final List<E> items;
+            try (Stream<E> stream = delegate.fetch(query)) {
+                items = stream.collect(Collectors.toList());
+            } catch (RuntimeException ex) {
+                metrics.recordFailure(CrudMetrics.FETCH, ex);
+                throw ex;
+            } finally {
+                metrics.recordTime(CrudMetrics.FETCH, System.nanoTime() - start);
+            }
+            metrics.increment(CrudMetrics.ROWS, items.size());
+            return items.stream();
+        }
+
+        @Override
+        public void refreshItem(E item) {
+            delegate.refreshItem(item);
+        }
+
+        @Override
+        public void refreshAll() {
+            delegate.refreshAll();
+        }
+
+        @Override
+        public Object getId(E item) {
+            return delegate.getId(item);
+        }
+
+        @Override
+        public Registration addDataProviderListener(DataProviderListener<E> listener) {
+            return delegate.addDataProviderListener(listener);
+        }
+    }
 }
@@ -0,0 +1,89 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The listeners of one {@link Crud} event type.
+ * <p>
+ * Listeners are kept in an array which is replaced on every change instead of being modified,
+ * so that firing an event is a plain loop over the array without any copying or iterator
+ * allocation. Listeners may be added and removed while an event is fired, the event is still
+ * delivered to the listeners registered when it was fired. Adding a listener that is already
+ * registered has no effect.
+ *
+ * @param <T> the event type
+ */
+final class CrudListeners<T extends ComponentEvent<?>> implements Serializable {
+
+    private static final ComponentEventListener<?>[] NO_LISTENERS = new ComponentEventListener<?>[0];
+
+    private ComponentEventListener<?>[] listeners = NO_LISTENERS;
+
+    Registration add(ComponentEventListener<T> listener) {
+        Objects.requireNonNull(listener, "Listener cannot be null");
+
+        if (indexOf(listener) < 0) {
+            final ComponentEventListener<?>[] added = Arrays.copyOf(listeners, listeners.length + 1);
+            added[listeners.length] = listener;
+            listeners = added;
+        }
+        return () -> remove(listener);
+    }
+
+    void remove(ComponentEventListener<T> listener) {
+        final int index = indexOf(listener);
+        if (index < 0) {
+            return;
+        }
+
+        final ComponentEventListener<?>[] removed = new ComponentEventListener<?>[listeners.length - 1];
+        System.arraycopy(listeners, 0, removed, 0, index);
+        System.arraycopy(listeners, index + 1, removed, index, removed.length - index);
+        listeners = removed;
+    }
+
+    boolean isEmpty() {
+        return listeners.length == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    void fire(T event) {
+        final ComponentEventListener<?>[] current = listeners;
+        for (int i = 0; i < current.length; i++) {
+            ((ComponentEventListener<T>) current[i]).onComponentEvent(event);
+        }
+    }
+
+    private int indexOf(ComponentEventListener<T> listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i].equals(listener)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
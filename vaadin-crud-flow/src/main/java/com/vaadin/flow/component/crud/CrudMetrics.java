@@ -0,0 +1,133 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+
+import java.io.Serializable;
+
+/**
+ * Receives measurements of the operations of a {@link Crud} and its {@link CrudGrid}, for
+ * monitoring how long saving, deleting and loading items takes in production.
+ * <p>
+ * Implement this interface to feed the measurements to a metrics library, or use
+ * {@link InMemoryCrudMetrics} to keep them in memory. The methods are called on the request
+ * handling thread, so implementations should return quickly.
+ *
+ * <pre>
+ * {@code
+ *   crud.setMetrics(new CrudMetrics() {
+ *       public void recordTime(String operation, long durationNanos) {
+ *           registry.timer("crud." + operation).record(durationNanos, TimeUnit.NANOSECONDS);
+ *       }
+ *
+ *       public void recordFailure(String operation, Throwable failure) {
+ *           registry.counter("crud." + operation + ".failures").increment();
+ *       }
+ *
+ *       public void increment(String counter, long amount) {
+ *           registry.counter("crud." + counter).increment(amount);
+ *       }
+ *   });
+ * }
+ * </pre>
+ *
+ * @see Crud#setMetrics(CrudMetrics)
+ */
+public interface CrudMetrics extends Serializable {
+
+    /**
+     * The operation of running the new listeners.
+     */
+    String NEW = "new";
+
+    /**
+     * The operation of running the edit listeners.
+     */
+    String EDIT = "edit";
+
+    /**
+     * The operation of running the save listeners.
+     */
+    String SAVE = "save";
+
+    /**
+     * The operation of running the cancel listeners.
+     */
+    String CANCEL = "cancel";
+
+    /**
+     * The operation of running the delete listeners.
+     */
+    String DELETE = "delete";
+
+    /**
+     * The operation of refreshing the grid after an item was saved or deleted.
+     */
+    String REFRESH = "refresh";
+
+    /**
+     * The operation of fetching a page of grid items from the data provider.
+     */
+    String FETCH = "fetch";
+
+    /**
+     * The operation of counting the grid items in the data provider.
+     */
+    String COUNT = "count";
+
+    /**
+     * The counter of grid items fetched from the data provider.
+     */
+    String ROWS = "rows";
+
+    /**
+     * The counter of saves rejected because the editor was not valid.
+     */
+    String VALIDATION_FAILURES = "validation-failures";
+
+    /**
+     * The counter of saves rejected because the item was changed concurrently.
+     *
+     * @see CrudConflictException
+     */
+    String CONFLICTS = "conflicts";
+
+    /**
+     * Records the duration of an operation, whether it succeeded or failed.
+     *
+     * @param operation the operation, one of the operation constants of this interface
+     * @param durationNanos the duration in nanoseconds
+     */
+    void recordTime(String operation, long durationNanos);
+
+    /**
+     * Records that an operation failed with an exception, for instance thrown by a save listener.
+     *
+     * @param operation the operation, one of the operation constants of this interface
+     * @param failure the exception
+     */
+    void recordFailure(String operation, Throwable failure);
+
+    /**
+     * Increments a counter.
+     *
+     * @param counter the counter, one of the counter constants of this interface
+     * @param amount the amount to add
+     */
+    void increment(String counter, long amount);
+}
@@ -0,0 +1,78 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import java.io.Serializable;
+
+/**
+ * A change of a single item property made in a {@link CrudEditor}.
+ *
+ * @see CrudEditor#getItemChanges()
+ * @see Crud.SaveEvent#getChanges()
+ */
+public class CrudPropertyChange implements Serializable {
+
+    private final String propertyName;
+    private final Object oldValue;
+    private final Object newValue;
+
+    /**
+     * Creates a new property change.
+     *
+     * @param propertyName the name of the changed property
+     * @param oldValue the value of the property when the item was set to the editor
+     * @param newValue the value of the property after the changes were written to the item
+     */
+    public CrudPropertyChange(String propertyName, Object oldValue, Object newValue) {
+        this.propertyName = propertyName;
+        this.oldValue = oldValue;
+        this.newValue = newValue;
+    }
+
+    /**
+     * Gets the name of the changed property.
+     *
+     * @return the property name
+     */
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * Gets the value of the property when the item was set to the editor.
+     *
+     * @return the old value
+     */
+    public Object getOldValue() {
+        return oldValue;
+    }
+
+    /**
+     * Gets the value of the property after the changes were written to the item.
+     *
+     * @return the new value
+     */
+    public Object getNewValue() {
+        return newValue;
+    }
+
+    @Override
+    public String toString() {
+        return propertyName + ": " + oldValue + " -> " + newValue;
+    }
+}
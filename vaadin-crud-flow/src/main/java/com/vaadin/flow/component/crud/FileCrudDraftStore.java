@@ -0,0 +1,111 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * A {@link CrudDraftStore} keeping each draft in a file of a local directory, named after the
+ * string representation of the item key. Drafts are written with Java serialization, so the
+ * values of the editor fields must be serializable.
+ * <p>
+ * A draft is written to a temporary file which then replaces the previous draft, so a crash while
+ * writing never leaves a partially written draft behind. Every write reaches the disk, so wrap
+ * the store in a {@link WriteBehindCrudDraftStore} to batch frequent changes.
+ */
+public class FileCrudDraftStore implements CrudDraftStore {
+
+    private static final String SUFFIX = ".draft";
+
+    private final String directory;
+
+    /**
+     * Creates a store for the given directory, which is created if it does not exist.
+     *
+     * @param directory the directory holding the drafts
+     * @throws UncheckedIOException if the directory cannot be created
+     */
+    public FileCrudDraftStore(Path directory) {
+        Objects.requireNonNull(directory, "Directory cannot be null");
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.directory = directory.toAbsolutePath().toString();
+    }
+
+    @Override
+    public void save(Object key, Serializable draft) {
+        final Path file = file(key);
+        try {
+            if (draft == null) {
+                Files.deleteIfExists(file);
+                return;
+            }
+
+            final Path temporary = Files.createTempFile(file.getParent(), null, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temporary);
+                     ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                    objects.writeObject(draft);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public Optional<Serializable> load(Object key) {
+        try (InputStream in = Files.newInputStream(file(key));
+             ObjectInputStream objects = new ObjectInputStream(in)) {
+            return Optional.of((Serializable) objects.readObject());
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException("Cannot read the draft of " + key, e);
+        }
+    }
+
+    private Path file(Object key) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        final String name = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(key).getBytes(StandardCharsets.UTF_8));
+        return Paths.get(directory).resolve(name + SUFFIX);
+    }
+}
@@ -0,0 +1,141 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link CrudMetrics} kept in memory, for showing them in an admin view or exposing them
+ * through a custom endpoint. One instance can be shared by many {@link Crud} instances and
+ * sessions, all methods are thread-safe.
+ */
+public class InMemoryCrudMetrics implements CrudMetrics {
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    @Override
+    public void recordTime(String operation, long durationNanos) {
+        timers.computeIfAbsent(operation, key -> new Timer()).record(durationNanos);
+    }
+
+    @Override
+    public void recordFailure(String operation, Throwable failure) {
+        failures.computeIfAbsent(operation, key -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void increment(String counter, long amount) {
+        counters.computeIfAbsent(counter, key -> new LongAdder()).add(amount);
+    }
+
+    /**
+     * Gets the number of times an operation was recorded.
+     *
+     * @param operation the operation
+     * @return the number of times the operation was run
+     */
+    public long getCount(String operation) {
+        Timer timer = timers.get(operation);
+        return timer == null ? 0 : timer.count.sum();
+    }
+
+    /**
+     * Gets the total time spent in an operation.
+     *
+     * @param operation the operation
+     * @return the total duration of all runs of the operation
+     */
+    public Duration getTotalTime(String operation) {
+        Timer timer = timers.get(operation);
+        return Duration.ofNanos(timer == null ? 0 : timer.total.sum());
+    }
+
+    /**
+     * Gets the mean time spent in an operation.
+     *
+     * @param operation the operation
+     * @return the mean duration of the operation, or zero if it was not run
+     */
+    public Duration getMeanTime(String operation) {
+        long count = getCount(operation);
+        return count == 0 ? Duration.ZERO : getTotalTime(operation).dividedBy(count);
+    }
+
+    /**
+     * Gets the longest time spent in an operation.
+     *
+     * @param operation the operation
+     * @return the longest duration of the operation, or zero if it was not run
+     */
+    public Duration getMaxTime(String operation) {
+        Timer timer = timers.get(operation);
+        return Duration.ofNanos(timer == null ? 0 : timer.max.get());
+    }
+
+    /**
+     * Gets the number of times an operation failed.
+     *
+     * @param operation the operation
+     * @return the number of failures
+     */
+    public long getFailureCount(String operation) {
+        LongAdder adder = failures.get(operation);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Gets the value of a counter.
+     *
+     * @param counter the counter
+     * @return the value of the counter
+     */
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Clears all measurements.
+     */
+    public void reset() {
+        timers.clear();
+        failures.clear();
+        counters.clear();
+    }
+
+    private static final class Timer implements Serializable {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        private void record(long durationNanos) {
+            count.increment();
+            total.add(durationNanos);
+            max.accumulateAndGet(durationNanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,644 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import com.vaadin.flow.shared.Registration;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * An embeddable store persisting {@link Crud} saves and deletes to an append-only journal.
+ * <p>
+ * Every save and delete is appended to the journal as a compact binary record. Records written
+ * concurrently are committed together: the first writer waiting for durability writes and syncs
+ * all pending records at once while the other writers wait for that single sync. With synchronous
+ * writes disabled, records are synced once the batch size is reached, when the flush interval has
+ * passed or on {@link #flush()}. Saves and deletes only become visible to readers once their record
+ * is synced, so that no reader sees a change that could still be lost in a crash. If writing a batch
+ * fails, its records stay pending and every writer waiting for them gets the failure.
+ * <p>
+ * A snapshot of all items is written periodically after which the journal is truncated, so that
+ * restarting only needs to read the snapshot and replay the records written since.
+ * <p>
+ * Only one store should be open for a directory. A store is serialized with its configuration
+ * only, and a deserialized store resolves to the store open for the same directory in this JVM,
+ * or opens the directory again if there is none.
+ *
+ * <pre>
+ * {@code
+ *   JournalCrudStore<Person> store = new JournalCrudStore<>(directory, personCodec);
+ *   store.bind(crud);
+ *   crud.setDataProvider(DataProvider.fromCallbacks(
+ *           query -> store.getItems().stream().skip(query.getOffset()).limit(query.getLimit()),
+ *           query -> store.size()));
+ * }
+ * </pre>
+ *
+ * @param <E> the bean type
+ */
+public class JournalCrudStore<E> implements Serializable {
+
+    private static final String JOURNAL_FILE = "journal";
+    private static final String SNAPSHOT_FILE = "snapshot";
+    private static final byte SAVE = 1;
+    private static final byte DELETE = 2;
+    private static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+    private static final int DEFAULT_BATCH_SIZE = 64 * 1024;
+    private static final long DEFAULT_FLUSH_INTERVAL = 1000;
+    private static final int RECORD_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+
+    // The stores open in this JVM, which deserialized stores resolve to
+    private static final Map<String, JournalCrudStore<?>> OPEN_STORES = new ConcurrentHashMap<>();
+
+    private final String directory;
+    private final Codec<E> codec;
+    private final transient Map<Object, E> items = new LinkedHashMap<>();
+    private final transient ReentrantLock commitLock = new ReentrantLock();
+
+    private int snapshotInterval = DEFAULT_SNAPSHOT_INTERVAL;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private boolean syncWrites = true;
+    private long flushIntervalMillis = DEFAULT_FLUSH_INTERVAL;
+
+    private transient FileChannel journal;
+    // Records appended but not yet synced, kept until their batch is durable
+    private transient List<Change<E>> pendingChanges = new ArrayList<>();
+    private transient int pendingBytes;
+    private transient long appendedSequence;
+    private transient long durableSequence;
+    private transient int recordsSinceSnapshot;
+    private transient boolean snapshotting;
+    private transient IOException journalFailure;
+    private transient ScheduledExecutorService flushExecutor;
+    private transient ScheduledFuture<?> flushTask;
+
+    /**
+     * Opens a store in the given directory, restoring its items from the latest snapshot
+     * and the journal records written after it.
+     *
+     * @param directory the directory holding the journal and snapshot files
+     * @param codec the codec reading and writing items
+     * @throws UncheckedIOException if the store cannot be opened
+     */
+    public JournalCrudStore(Path directory, Codec<E> codec) {
+        this.directory = Objects.requireNonNull(directory, "Directory cannot be null").toString();
+        this.codec = Objects.requireNonNull(codec, "Codec cannot be null");
+
+        try {
+            Files.createDirectories(directory);
+            readSnapshot();
+            replayJournal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        OPEN_STORES.putIfAbsent(this.directory, this);
+    }
+
+    /**
+     * Sets the number of journal records after which a snapshot is written and the journal truncated.
+     * The default is 10000.
+     *
+     * @param snapshotInterval the number of records between snapshots
+     */
+    public void setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("The snapshot interval must be positive");
+        }
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Sets whether {@link #save(Object)} and {@link #delete(Object)} return only after their
+     * record is synced to disk. Concurrent writers share a single sync. When disabled, records are
+     * buffered and synced once the batch size is reached or when {@link #flush()} is called, and
+     * the saved and deleted items are only visible after that. Synchronous writes are enabled by
+     * default.
+     *
+     * @param syncWrites true to sync every write, false to batch syncs
+     */
+    public void setSyncWrites(boolean syncWrites) {
+        this.syncWrites = syncWrites;
+    }
+
+    /**
+     * Sets the longest time records are buffered when synchronous writes are disabled, after
+     * which they are synced even if the batch size is not reached. The default is one second.
+     *
+     * @param flushInterval the flush interval
+     */
+    public void setFlushInterval(Duration flushInterval) {
+        Objects.requireNonNull(flushInterval, "Flush interval cannot be null");
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("The flush interval must be positive");
+        }
+        this.flushIntervalMillis = flushInterval.toMillis();
+    }
+
+    /**
+     * Sets the number of buffered bytes after which records are synced to disk when
+     * synchronous writes are disabled. The default is 64KB.
+     *
+     * @param batchSize the batch size in bytes
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("The batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Registers save and delete listeners persisting the items of the given crud in this store.
+     *
+     * @param crud the crud to bind
+     * @return a handle that can be used to unbind the crud
+     */
+    public Registration bind(Crud<E> crud) {
+        Registration save = crud.addSaveListener(e -> save(e.getItem()));
+        Registration delete = crud.addDeleteListener(e -> delete(e.getItem()));
+        return () -> {
+            save.remove();
+            delete.remove();
+        };
+    }
+
+    /**
+     * Saves an item, replacing any item with the same key.
+     *
+     * @param item the item to save
+     */
+    public void save(E item) {
+        append(SAVE, item);
+    }
+
+    /**
+     * Deletes the item with the same key as the given item.
+     *
+     * @param item the item to delete
+     */
+    public void delete(E item) {
+        append(DELETE, item);
+    }
+
+    /**
+     * Finds an item by its key.
+     *
+     * @param key the key of the item
+     * @return the item, or an empty optional if there is no item with the given key
+     */
+    public synchronized Optional<E> find(Object key) {
+        return Optional.ofNullable(items.get(key));
+    }
+
+    /**
+     * Gets all items in the order in which they were first saved.
+     *
+     * @return a copy of all items
+     */
+    public synchronized List<E> getItems() {
+        return new ArrayList<>(items.values());
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items
+     */
+    public synchronized int size() {
+        return items.size();
+    }
+
+    /**
+     * Syncs all buffered records to disk.
+     */
+    public void flush() {
+        long sequence;
+        synchronized (this) {
+            sequence = appendedSequence;
+        }
+        commit(sequence);
+    }
+
+    /**
+     * Writes a snapshot of all items and truncates the journal.
+     */
+    public void snapshot() {
+        commitLock.lock();
+        snapshotting = true;
+        try {
+            flush();
+
+            synchronized (this) {
+                writeSnapshot();
+                journal().truncate(0);
+                recordsSinceSnapshot = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            snapshotting = false;
+            commitLock.unlock();
+        }
+    }
+
+    /**
+     * Syncs all buffered records and closes the journal.
+     */
+    public void close() {
+        synchronized (this) {
+            stopFlushing();
+        }
+        flush();
+        OPEN_STORES.remove(directory, this);
+        commitLock.lock();
+        try {
+            if (journal != null) {
+                journal.close();
+                journal = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    private void append(byte type, E item) {
+        Objects.requireNonNull(codec.getKey(item), "The key of an item cannot be null");
+        byte[] record = encodeRecord(type, item);
+
+        long sequence;
+        boolean full;
+        synchronized (this) {
+            pendingChanges().add(new Change<>(type, item, record));
+            pendingBytes += record.length;
+            sequence = ++appendedSequence;
+            full = pendingBytes >= batchSize;
+            if (!syncWrites && !full) {
+                scheduleFlush();
+            }
+        }
+
+        if (syncWrites || full) {
+            commit(sequence);
+        }
+    }
+
+    /*
+     * Group commit: the first thread to get the commit lock writes and syncs every record
+     * appended so far and only then applies them. Threads that were waiting find their record
+     * already durable. If the batch cannot be written its records stay pending, so that each
+     * waiting thread tries again and fails in turn instead of returning without its record
+     * written. A snapshot is written by the committing thread once it is due.
+     */
+    private void commit(long sequence) {
+        commitLock.lock();
+        try {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            if (journalFailure != null) {
+                throw new IOException("The journal could not be restored after a failed write",
+                        journalFailure);
+            }
+
+            List<Change<E>> changes;
+            long batchSequence;
+            int batchBytes;
+            synchronized (this) {
+                changes = new ArrayList<>(pendingChanges());
+                batchSequence = appendedSequence;
+                batchBytes = pendingBytes;
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(batchBytes);
+            changes.forEach(change -> buffer.put(change.record));
+            buffer.flip();
+            writeBatch(buffer);
+            durableSequence = batchSequence;
+
+            boolean snapshotDue;
+            synchronized (this) {
+                pendingChanges.subList(0, changes.size()).clear();
+                pendingBytes -= batchBytes;
+                changes.forEach(change -> apply(change.type, change.item));
+                recordsSinceSnapshot += changes.size();
+                snapshotDue = recordsSinceSnapshot >= snapshotInterval;
+            }
+            if (snapshotDue && !snapshotting) {
+                snapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            commitLock.unlock();
+        }
+    }
+
+    /*
+     * Writes and syncs a batch. A failed write is removed from the journal again, so that the
+     * batch can be retried without leaving a torn record in front of it.
+     */
+    private void writeBatch(ByteBuffer buffer) throws IOException {
+        FileChannel channel = journal();
+        long start = channel.position();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                channel.truncate(start);
+                channel.position(start);
+            } catch (IOException rollbackFailure) {
+                e.addSuppressed(rollbackFailure);
+                journalFailure = e;
+            }
+            throw e;
+        }
+    }
+
+    private void scheduleFlush() {
+        if (flushTask != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "crud-journal-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushTask = flushExecutor.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Called holding the lock of this store
+    private void stopFlushing() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+            flushExecutor.shutdown();
+            flushExecutor = null;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            // The records stay pending and are retried on the next flush
+            return;
+        }
+
+        synchronized (this) {
+            // Stop flushing while idle so that unused stores are not kept reachable
+            if (pendingChanges().isEmpty()) {
+                stopFlushing();
+            }
+        }
+    }
+
+    private void apply(byte type, E item) {
+        Object key = Objects.requireNonNull(codec.getKey(item), "The key of an item cannot be null");
+        if (type == SAVE) {
+            items.put(key, item);
+        } else {
+            items.remove(key);
+        }
+    }
+
+    /*
+     * Record layout: payload length, type, payload and a CRC32 of type and payload.
+     */
+    private byte[] encodeRecord(byte type, E item) {
+        byte[] payload = encode(item);
+
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + 1 + payload.length + Integer.BYTES);
+        record.putInt(payload.length);
+        record.put(type);
+        record.put(payload);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    private byte[] encode(E item) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            codec.write(item, new DataOutputStream(bytes));
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private E decode(byte[] payload) throws IOException {
+        return codec.read(new DataInputStream(new ByteArrayInputStream(payload)));
+    }
+
+    private void replayJournal() throws IOException {
+        FileChannel channel = journal();
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        buffer.flip();
+
+        // A torn or corrupt record ends the journal and is dropped with everything after it
+        int validLength = 0;
+        while (buffer.remaining() >= RECORD_OVERHEAD) {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() - 1 - Integer.BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            byte type = buffer.get();
+            buffer.get(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(type);
+            crc.update(payload);
+            if (buffer.getInt() != (int) crc.getValue()) {
+                break;
+            }
+
+            apply(type, decode(payload));
+            recordsSinceSnapshot++;
+            validLength = buffer.position();
+        }
+
+        channel.truncate(validLength);
+        channel.position(validLength);
+    }
+
+    private void readSnapshot() throws IOException {
+        Path snapshot = Paths.get(directory, SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return;
+        }
+
+        long size = Files.size(snapshot);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(snapshot)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                int length = in.readInt();
+                if (length < 0 || length > size) {
+                    throw new IOException("Corrupt snapshot " + snapshot);
+                }
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                apply(SAVE, decode(payload));
+            }
+        }
+    }
+
+    private void writeSnapshot() throws IOException {
+        Path snapshot = Paths.get(directory, SNAPSHOT_FILE);
+        Path tmp = Paths.get(directory, SNAPSHOT_FILE + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel)));
+            out.writeInt(items.size());
+            for (E item : items.values()) {
+                byte[] payload = encode(item);
+                out.writeInt(payload.length);
+                out.write(payload);
+            }
+            out.flush();
+            channel.force(true);
+        }
+
+        // A crash before the journal is truncated only replays records already in the snapshot
+        Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private FileChannel journal() throws IOException {
+        if (journal == null) {
+            journal = FileChannel.open(Paths.get(directory, JOURNAL_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            journal.position(journal.size());
+        }
+        return journal;
+    }
+
+    private List<Change<E>> pendingChanges() {
+        if (pendingChanges == null) {
+            pendingChanges = new ArrayList<>();
+        }
+        return pendingChanges;
+    }
+
+    private Object readResolve() {
+        synchronized (OPEN_STORES) {
+            final JournalCrudStore<?> open = OPEN_STORES.get(directory);
+            if (open != null) {
+                return open;
+            }
+
+            final JournalCrudStore<E> store = new JournalCrudStore<>(Paths.get(directory), codec);
+            store.snapshotInterval = snapshotInterval;
+            store.batchSize = batchSize;
+            store.syncWrites = syncWrites;
+            store.flushIntervalMillis = flushIntervalMillis;
+            return store;
+        }
+    }
+
+    private static final class Change<E> {
+
+        private final byte type;
+        private final E item;
+        private final byte[] record;
+
+        private Change(byte type, E item, byte[] record) {
+            this.type = type;
+            this.item = item;
+            this.record = record;
+        }
+    }
+
+    /**
+     * Reads and writes the items of a {@link JournalCrudStore}.
+     *
+     * @param <E> the bean type
+     */
+    public interface Codec<E> extends Serializable {
+
+        /**
+         * Gets the unique key of an item.
+         *
+         * @param item the item
+         * @return the key, not {@code null}
+         */
+        Object getKey(E item);
+
+        /**
+         * Writes an item.
+         *
+         * @param item the item to write
+         * @param out the output to write to
+         * @throws IOException if writing fails
+         */
+        void write(E item, DataOutput out) throws IOException;
+
+        /**
+         * Reads an item written by {@link #write(Object, DataOutput)}.
+         *
+         * @param in the input to read from
+         * @return the item
+         * @throws IOException if reading fails
+         */
+        E read(DataInput in) throws IOException;
+    }
+}
@@ -0,0 +1,279 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import com.vaadin.flow.data.binder.BeanPropertySet;
+import com.vaadin.flow.data.binder.PropertyDefinition;
+import com.vaadin.flow.data.binder.PropertySet;
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+import com.vaadin.flow.function.ValueProvider;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A data provider for {@link CrudGrid} serving the items of a {@link KeyedCrudStore}.
+ * <p>
+ * Each {@link CrudGrid} has its own filter instance, which pins the version of the store that was
+ * current when the filter was first queried, so that all pages fetched for one filter and sort
+ * state come from the same version even while other users save or delete items. This prevents
+ * rows from being duplicated or skipped when paging across concurrent writes. A filter moves to
+ * the newest version when its constraints or sort orders change, and when {@link Crud} refreshes
+ * its own grid after a save or delete, which calls {@link #refreshAll(CrudFilter)}.
+ * {@link #refreshAll()} moves all grids to the newest version. Pins are held weakly by the filter
+ * so that old versions can be garbage collected once no grid uses them anymore. Queries without
+ * a filter are not pinned and always use the newest version.
+ * <p>
+ * The filtered and sorted items of a pinned version are computed once, and each page is then
+ * served from them.
+ * <p>
+ * Filter constraints match items whose property value contains the constraint text, ignoring case.
+ *
+ * @param <E> the bean type
+ */
+public class KeyedCrudDataProvider<E> extends AbstractBackEndDataProvider<E, CrudFilter> {
+
+    private final Class<E> beanType;
+    private final KeyedCrudStore<E> store;
+    private final ValueProvider<E, ? extends Number> idGetter;
+
+    private transient Map<CrudFilter, Pin<E>> pinnedVersions;
+    private transient PropertySet<E> propertySet;
+
+    /**
+     * Creates a data provider for the items of the given store.
+     *
+     * @param beanType the bean type, used to read the properties referenced by filters
+     * @param store the store holding the items
+     * @param idGetter the function reading the id of an item
+     */
+    public KeyedCrudDataProvider(Class<E> beanType, KeyedCrudStore<E> store,
+                                 ValueProvider<E, ? extends Number> idGetter) {
+        this.beanType = Objects.requireNonNull(beanType, "Bean type cannot be null");
+        this.store = Objects.requireNonNull(store, "Store cannot be null");
+        this.idGetter = Objects.requireNonNull(idGetter, "Id getter cannot be null");
+    }
+
+    /**
+     * Gets the store serving the items.
+     *
+     * @return the store
+     */
+    public KeyedCrudStore<E> getStore() {
+        return store;
+    }
+
+    /**
+     * Gets the version of the store pinned by the given filter, if any.
+     *
+     * @param filter the grid filter
+     * @return the pinned version number, or -1 if the filter has not pinned any version
+     */
+    public synchronized long getPinnedVersion(CrudFilter filter) {
+        Pin<E> pin = pinnedVersions().get(filter);
+        return pin == null ? -1 : pin.snapshot.getVersion();
+    }
+
+    /**
+     * Releases the version pinned by the given filter, so that the following queries with the
+     * filter use the newest version of the store. The pins of other filters are not affected.
+     *
+     * @param filter the grid filter
+     */
+    public synchronized void release(CrudFilter filter) {
+        pinnedVersions().remove(filter);
+    }
+
+    /**
+     * Releases the versions pinned by all filters, so that the following queries use the newest
+     * version of the store.
+     *
+     * @see #refreshAll()
+     */
+    public synchronized void releaseAll() {
+        pinnedVersions().clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * All grids move to the newest version of the store, as the versions pinned by all filters
+     * are released.
+     */
+    @Override
+    public void refreshAll() {
+        releaseAll();
+        super.refreshAll();
+    }
+
+    /**
+     * Refreshes all items, moving only the grid with the given filter to the newest version of
+     * the store. The other grids reload the versions they pinned, so that their paging stays
+     * consistent.
+     *
+     * @param filter the filter of the grid to move to the newest version
+     */
+    public void refreshAll(CrudFilter filter) {
+        release(filter);
+        super.refreshAll();
+    }
+
+    @Override
+    public Object getId(E item) {
+        return idGetter.apply(item);
+    }
+
+    @Override
+    protected Stream<E> fetchFromBackEnd(Query<E, CrudFilter> query) {
+        CrudFilter filter = query.getFilter().orElse(null);
+        if (filter == null) {
+            return filter(store.stream(), null).skip(query.getOffset()).limit(query.getLimit());
+        }
+
+        List<E> items = items(filter);
+        int from = Math.min(query.getOffset(), items.size());
+        return items.subList(from, Math.min(from + query.getLimit(), items.size())).stream();
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<E, CrudFilter> query) {
+        CrudFilter filter = query.getFilter().orElse(null);
+        return filter == null ? store.size() : items(filter).size();
+    }
+
+    private Stream<E> filter(Stream<E> stream, CrudFilter filter) {
+        if (filter == null) {
+            return stream;
+        }
+
+        if (!filter.getConstraints().isEmpty()) {
+            stream = stream.filter(predicate(filter));
+        }
+        if (!filter.getSortOrders().isEmpty()) {
+            stream = stream.sorted(comparator(filter));
+        }
+        return stream;
+    }
+
+    /*
+     * The items of a pin are computed outside of the lock, so that sorting a large version does
+     * not block the queries of other grids. Two queries may compute them at the same time, the
+     * results are equal.
+     */
+    private List<E> items(CrudFilter filter) {
+        Pin<E> pin = pin(filter);
+        List<E> items = pin.items;
+        if (items == null) {
+            items = filter(pin.snapshot.stream(), filter).collect(Collectors.toList());
+            pin.items = items;
+        }
+        return items;
+    }
+
+    /*
+     * Checks the pinned filter state on every query, so that a changed filter or sort order
+     * moves to the newest version without releasing the pins of other grids.
+     */
+    private synchronized Pin<E> pin(CrudFilter filter) {
+        Pin<E> pin = pinnedVersions().get(filter);
+        if (pin == null || !pin.matches(filter)) {
+            pin = new Pin<>(store.snapshot(), filter);
+            pinnedVersions().put(filter, pin);
+        }
+        return pin;
+    }
+
+    private Predicate<E> predicate(CrudFilter filter) {
+        return filter.getConstraints().entrySet().stream()
+                .map(constraint -> {
+                    ValueProvider<E, ?> getter = getter(constraint.getKey());
+                    String text = constraint.getValue().toLowerCase();
+                    return (Predicate<E>) item -> {
+                        Object value = getter.apply(item);
+                        return value != null && value.toString().toLowerCase().contains(text);
+                    };
+                })
+                .reduce(Predicate::and)
+                .orElse(item -> true);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Comparator<E> comparator(CrudFilter filter) {
+        return filter.getSortOrders().entrySet().stream()
+                .map(sortClause -> {
+                    ValueProvider<E, ?> getter = getter(sortClause.getKey());
+                    Comparator<E> comparator = Comparator.comparing(
+                            item -> (Comparable) getter.apply(item),
+                            Comparator.nullsFirst(Comparator.naturalOrder()));
+
+                    return sortClause.getValue() == SortDirection.DESCENDING
+                            ? comparator.reversed()
+                            : comparator;
+                })
+                .reduce(Comparator::thenComparing)
+                .orElse((o1, o2) -> 0);
+    }
+
+    private ValueProvider<E, ?> getter(String property) {
+        if (propertySet == null) {
+            propertySet = BeanPropertySet.get(beanType);
+        }
+
+        return propertySet.getProperty(property)
+                .map(PropertyDefinition::getGetter)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Unknown property '" + property + "' in " + beanType.getName()));
+    }
+
+    private Map<CrudFilter, Pin<E>> pinnedVersions() {
+        if (pinnedVersions == null) {
+            pinnedVersions = new WeakHashMap<>();
+        }
+        return pinnedVersions;
+    }
+
+    private static final class Pin<E> {
+
+        private final KeyedCrudStore.Snapshot<E> snapshot;
+        private final Map<String, String> constraints;
+        private final Map<String, SortDirection> sortOrders;
+        private volatile List<E> items;
+
+        private Pin(KeyedCrudStore.Snapshot<E> snapshot, CrudFilter filter) {
+            this.snapshot = snapshot;
+            this.constraints = new LinkedHashMap<>(filter.getConstraints());
+            this.sortOrders = new LinkedHashMap<>(filter.getSortOrders());
+        }
+
+        private boolean matches(CrudFilter filter) {
+            return constraints.equals(filter.getConstraints())
+                    && new ArrayList<>(sortOrders.entrySet()).equals(
+                            new ArrayList<>(filter.getSortOrders().entrySet()));
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import com.vaadin.flow.data.binder.Setter;
+import com.vaadin.flow.function.ValueProvider;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * An in-memory store for {@link Crud} items identified by a numeric id.
+ * <p>
+ * Items are kept in insertion order and indexed by id, so that saving, finding and deleting an
+ * item takes constant time regardless of the number of items. Items saved without an id are
+ * assigned the next value of an id sequence which always stays ahead of the largest id saved.
+ * <p>
+ * The items are stored in immutable versions. Reading with {@link #snapshot()} returns the current
+ * version in constant time without copying anything, and it stays unchanged while writers publish
+ * new versions. A write only copies the fixed-size chunk of items it touches, so the stored items
+ * themselves are shared between versions and must not be modified in place: edit a copy instead,
+ * for instance with {@link Crud#setEditItemLoader(com.vaadin.flow.function.SerializableFunction)}.
+ *
+ * <pre>
+ * {@code
+ *   KeyedCrudStore<Person> store = new KeyedCrudStore<>(Person::getId,
+ *           (person, id) -> person.setId(id.intValue()));
+ *
+ *   crud.setEditItemLoader(Person::clone);
+ *   crud.addSaveListener(e -> store.save(e.getItem()));
+ *   crud.addDeleteListener(e -> store.delete(e.getItem()));
+ * }
+ * </pre>
+ *
+ * @param <E> the bean type
+ */
+public class KeyedCrudStore<E> implements Serializable {
+
+    private static final int CHUNK_BITS = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final ValueProvider<E, ? extends Number> idGetter;
+    private final Setter<E, Long> idSetter;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Maps ids to slots of the current version, only accessed while holding the store lock
+    private LongIntHashMap index = new LongIntHashMap();
+    private volatile Snapshot<E> current = new Snapshot<>(new Object[0][], 0, 0, 0);
+
+    /**
+     * Creates an empty store.
+     *
+     * @param idGetter the function reading the id of an item, returning {@code null} for new items
+     * @param idSetter the function assigning a generated id to a new item
+     */
+    public KeyedCrudStore(ValueProvider<E, ? extends Number> idGetter, Setter<E, Long> idSetter) {
+        this.idGetter = Objects.requireNonNull(idGetter, "Id getter cannot be null");
+        this.idSetter = Objects.requireNonNull(idSetter, "Id setter cannot be null");
+    }
+
+    /**
+     * Saves an item. An item with the id of an existing item replaces it in place, other items are
+     * added last. An item without an id is assigned the next id of the sequence.
+     *
+     * @param item the item to save
+     */
+    public void save(E item) {
+        saveAll(Collections.singleton(item));
+    }
+
+    /**
+     * Saves all given items and publishes them as a single new version.
+     *
+     * @param items the items to save
+     * @see #save(Object)
+     */
+    public synchronized void saveAll(Iterable<E> items) {
+        Writer writer = new Writer(current);
+        for (E item : items) {
+            Number id = idGetter.apply(item);
+            if (id == null) {
+                long generated = sequence.incrementAndGet();
+                idSetter.accept(item, generated);
+                id = generated;
+            } else {
+                sequence.accumulateAndGet(id.longValue(), Math::max);
+            }
+
+            int slot = index.get(id.longValue());
+            if (slot != LongIntHashMap.NO_VALUE) {
+                writer.set(slot, item);
+            } else {
+                index.put(id.longValue(), writer.append(item));
+            }
+        }
+        publish(writer);
+    }
+
+    /**
+     * Finds an item by its id.
+     *
+     * @param id the id of the item
+     * @return the item, or an empty optional if there is no item with the given id
+     */
+    public synchronized Optional<E> find(long id) {
+        int slot = index.get(id);
+        return slot == LongIntHashMap.NO_VALUE ? Optional.empty() : Optional.of(current.get(slot));
+    }
+
+    /**
+     * Deletes the item with the same id as the given item.
+     *
+     * @param item the item to delete
+     * @return true if an item was deleted or false if there was no item with the same id
+     */
+    public boolean delete(E item) {
+        Number id = idGetter.apply(item);
+        return id != null && deleteById(id.longValue());
+    }
+
+    /**
+     * Deletes an item by its id.
+     *
+     * @param id the id of the item
+     * @return true if an item was deleted or false if there was no item with the given id
+     */
+    public synchronized boolean deleteById(long id) {
+        int slot = index.remove(id);
+        if (slot == LongIntHashMap.NO_VALUE) {
+            return false;
+        }
+
+        Writer writer = new Writer(current);
+        writer.set(slot, null);
+        writer.size--;
+        if (writer.used - writer.size > CHUNK_SIZE && writer.used - writer.size > writer.size) {
+            writer = compact(writer);
+        }
+        publish(writer);
+        return true;
+    }
+
+    /**
+     * Deletes all items. The id sequence is not reset.
+     */
+    public synchronized void clear() {
+        index = new LongIntHashMap();
+        publish(new Writer(new Snapshot<>(new Object[0][], 0, 0, current.version)));
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return current.size();
+    }
+
+    /**
+     * Gets the current version of the items. This takes constant time and the returned
+     * snapshot is not affected by later writes.
+     *
+     * @return the current version of the items
+     */
+    public Snapshot<E> snapshot() {
+        return current;
+    }
+
+    /**
+     * Gets all items in insertion order.
+     *
+     * @return a copy of all items
+     */
+    public List<E> getItems() {
+        return stream().collect(Collectors.toList());
+    }
+
+    /**
+     * Streams the items of the current version in insertion order.
+     *
+     * @return a stream of all items
+     */
+    public Stream<E> stream() {
+        return current.stream();
+    }
+
+    private void publish(Writer writer) {
+        current = new Snapshot<>(writer.chunks, writer.used, writer.size, current.version + 1);
+    }
+
+    /*
+     * Drops the slots of deleted items and reindexes the remaining ones.
+     */
+    private Writer compact(Writer writer) {
+        Snapshot<E> live = new Snapshot<>(writer.chunks, writer.used, writer.size, 0);
+        Writer compacted = new Writer(new Snapshot<>(new Object[0][], 0, 0, 0));
+        LongIntHashMap compactedIndex = new LongIntHashMap(live.size());
+        live.forEach(item -> compactedIndex.put(idGetter.apply(item).longValue(), compacted.append(item)));
+
+        index = compactedIndex;
+        return compacted;
+    }
+
+    /*
+     * Builds the next version from a base version, copying each chunk of the base at most once.
+     */
+    private static final class Writer implements Serializable {
+
+        private Object[][] chunks;
+        private boolean[] owned;
+        private int used;
+        private int size;
+
+        private Writer(Snapshot<?> base) {
+            chunks = base.chunks.clone();
+            owned = new boolean[chunks.length];
+            used = base.used;
+            size = base.size;
+        }
+
+        private void set(int slot, Object item) {
+            int chunk = slot >>> CHUNK_BITS;
+            if (!owned[chunk]) {
+                chunks[chunk] = chunks[chunk].clone();
+                owned[chunk] = true;
+            }
+            chunks[chunk][slot & CHUNK_MASK] = item;
+        }
+
+        private int append(Object item) {
+            if (used == chunks.length << CHUNK_BITS) {
+                chunks = Arrays.copyOf(chunks, chunks.length + 1);
+                owned = Arrays.copyOf(owned, owned.length + 1);
+                chunks[chunks.length - 1] = new Object[CHUNK_SIZE];
+                owned[owned.length - 1] = true;
+            }
+            set(used, item);
+            size++;
+            return used++;
+        }
+    }
+
+    /**
+     * An immutable version of the items of a {@link KeyedCrudStore}.
+     *
+     * @param <E> the bean type
+     */
+    public static final class Snapshot<E> implements Iterable<E>, Serializable {
+
+        private final Object[][] chunks;
+        private final int used;
+        private final int size;
+        private final long version;
+
+        private Snapshot(Object[][] chunks, int used, int size, long version) {
+            this.chunks = chunks;
+            this.used = used;
+            this.size = size;
+            this.version = version;
+        }
+
+        /**
+         * Gets the number of items in this version.
+         *
+         * @return the number of items
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Gets the version number, which increases with every write to the store.
+         *
+         * @return the version number
+         */
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * Streams the items of this version in insertion order.
+         *
+         * @return a stream of the items
+         */
+        public Stream<E> stream() {
+            return StreamSupport.stream(Spliterators.spliterator(iterator(), size,
+                    Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.SIZED), false);
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new Iterator<E>() {
+                private int slot = advance(0);
+
+                @Override
+                public boolean hasNext() {
+                    return slot < used;
+                }
+
+                @Override
+                public E next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    E item = get(slot);
+                    slot = advance(slot + 1);
+                    return item;
+                }
+            };
+        }
+
+        private int advance(int slot) {
+            while (slot < used && chunks[slot >>> CHUNK_BITS][slot & CHUNK_MASK] == null) {
+                slot++;
+            }
+            return slot;
+        }
+
+        @SuppressWarnings("unchecked")
+        private E get(int slot) {
+            return (E) chunks[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+        }
+    }
+}
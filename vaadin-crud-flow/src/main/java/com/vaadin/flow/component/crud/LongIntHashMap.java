@@ -0,0 +1,155 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from primitive long keys to non-negative int values,
+ * avoiding the boxing and entry allocation of a {@code HashMap<Long, Integer>}.
+ */
+final class LongIntHashMap implements Serializable {
+
+    static final int NO_VALUE = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    LongIntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expectedSize * 4) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @return the value, or {@link #NO_VALUE} if the key is not present
+     */
+    int get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != NO_VALUE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Associates a non-negative value with a key.
+     *
+     * @return the previous value, or {@link #NO_VALUE} if the key was not present
+     */
+    int put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative");
+        }
+
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        for (; values[slot] != NO_VALUE; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                int previous = values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size * 4 > keys.length * 3) {
+            rehash(keys.length << 1);
+        }
+        return NO_VALUE;
+    }
+
+    /**
+     * Removes a key, shifting back the entries that follow it in the probe sequence
+     * instead of leaving a tombstone.
+     *
+     * @return the removed value, or {@link #NO_VALUE} if the key was not present
+     */
+    int remove(long key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != NO_VALUE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == NO_VALUE) {
+            return NO_VALUE;
+        }
+
+        int removed = values[slot];
+        int gap = slot;
+        for (int next = (gap + 1) & mask; values[next] != NO_VALUE; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            // Move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        values[gap] = NO_VALUE;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(values, NO_VALUE);
+        size = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != NO_VALUE) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, NO_VALUE);
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,903 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+
+import com.vaadin.flow.data.provider.AbstractBackEndDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A read-mostly data provider for {@link Crud} backed by a memory-mapped file.
+ * <p>
+ * The file holds a header, a table of fixed-width row slots and a string heap. Each slot stores
+ * the heap offset and length of one column value so that a row can be located by its index
+ * without any further lookup. Queries are served directly from the mapped file and beans are only
+ * materialized for the rows that are actually returned, which keeps very large and mostly static
+ * datasets off the heap.
+ * <p>
+ * Fetching a page in insertion order only reads rows up to the end of that page, and counting
+ * the rows without filter constraints takes constant time. Filter constraints and sort orders
+ * still need a pass over the constrained and sorted columns of all rows, holding no more than
+ * one page worth of sorted rows on the heap.
+ * <p>
+ * Saves and deletes are appended to a checksummed patch log next to the data file and applied
+ * as an overlay on top of the mapped rows. Once the log grows beyond the compaction threshold
+ * the file is rewritten with the overlay merged in. Each log record is forced to the storage
+ * device before the save or delete returns.
+ * <p>
+ * Opening the file builds an index from the hashes of the keys to their rows with one pass over
+ * the key column, so that saves and deletes find their row without scanning. The row counts of
+ * constrained filters are cached until the next save or delete.
+ *
+ * <pre>
+ * {@code
+ *   MappedFileCrudDataProvider.write(file, codec, persons);
+ *   MappedFileCrudDataProvider<Person> provider = new MappedFileCrudDataProvider<>(file, codec);
+ *   crud.setDataProvider(provider);
+ *
+ *   crud.addSaveListener(e -> provider.save(e.getItem()));
+ *   crud.addDeleteListener(e -> provider.delete(e.getItem()));
+ * }
+ * </pre>
+ *
+ * @param <E> the bean type
+ */
+public class MappedFileCrudDataProvider<E> extends AbstractBackEndDataProvider<E, CrudFilter> {
+
+    private static final int MAGIC = 0x43525544;
+    private static final int FORMAT_VERSION = 1;
+    private static final int SLOT_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int NULL_LENGTH = -1;
+    private static final byte LOG_PUT = 1;
+    private static final byte LOG_DELETE = 2;
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 10_000;
+    private static final int NOT_MAPPED = -1;
+
+    private final String filePath;
+    private final RowCodec<E> codec;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Overlay of the patch log. Mapped rows are patched by their index, so that scans never
+    // decode the key column, and the patched values are null for deleted rows.
+    private final LongIntHashMap patchedRows = new LongIntHashMap();
+    private final List<String[]> patches = new ArrayList<>();
+    private final Map<String, String[]> appendedRows = new LinkedHashMap<>();
+    private int deletedRows;
+    private int compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+    private int logEntries;
+
+    private transient MappedRegion region;
+    private transient FileChannel log;
+    // Rows of the mapped keys by key hash, with the keys whose hash is taken by an earlier row
+    private transient LongIntHashMap keyIndex;
+    private transient Map<String, Integer> collidingKeys;
+    // Row counts of constrained filters, cleared on every write
+    private transient Map<Map<String, String>, Integer> sizes;
+    private int rowCount;
+    private int columnCount;
+    private long rowsOffset;
+    private long heapOffset;
+
+    /**
+     * Maps the given data file and replays its patch log, if any.
+     *
+     * @param file the data file, previously created with {@link #write(Path, RowCodec, Iterable)}
+     * @param codec the codec converting between beans and row values
+     * @throws UncheckedIOException if the file cannot be read
+     */
+    public MappedFileCrudDataProvider(Path file, RowCodec<E> codec) {
+        this.filePath = Objects.requireNonNull(file, "File cannot be null").toString();
+        this.codec = Objects.requireNonNull(codec, "Codec cannot be null");
+
+        try {
+            open();
+            replayLog();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the given items into a new data file, replacing any existing file and patch log.
+     *
+     * @param file the data file to write
+     * @param codec the codec converting between beans and row values
+     * @param items the items to write
+     * @param <E> the bean type
+     * @throws UncheckedIOException if the file cannot be written
+     */
+    public static <E> void write(Path file, RowCodec<E> codec, Iterable<E> items) {
+        List<String[]> rows = new ArrayList<>();
+        items.forEach(item -> rows.add(codec.encode(item)));
+        try {
+            writeRows(file, codec.getColumns(), rows::forEach, rows.size());
+            Files.deleteIfExists(logPath(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the number of patch log entries after which the data file is compacted.
+     * The default is 10000.
+     *
+     * @param compactionThreshold the number of log entries triggering a compaction
+     */
+    public void setCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold < 1) {
+            throw new IllegalArgumentException("The compaction threshold must be positive");
+        }
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * Saves an item. An item whose key already exists replaces the existing row in place,
+     * otherwise the item is appended after the existing rows.
+     *
+     * @param item the item to save
+     */
+    public void save(E item) {
+        String[] values = codec.encode(item);
+        checkWidth(values);
+        writeLog(LOG_PUT, values[0], values);
+    }
+
+    /**
+     * Deletes an item.
+     *
+     * @param item the item to delete
+     */
+    public void delete(E item) {
+        writeLog(LOG_DELETE, codec.encode(item)[0], null);
+    }
+
+    /**
+     * Rewrites the data file with all logged saves and deletes merged in and truncates the patch log.
+     *
+     * @throws UncheckedIOException if the file cannot be rewritten
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (logEntries == 0) {
+                return;
+            }
+
+            Path file = Paths.get(filePath);
+            Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+            List<String> columns = readColumns();
+            int size = sizeOf(null);
+
+            writeRows(tmp, columns, action -> scan(null, 0, (row, values) -> {
+                action.accept(values(row, values));
+                return true;
+            }), size);
+
+            closeChannels();
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(logPath(file));
+
+            clearOverlay();
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Unmaps the data file and closes the patch log.
+     */
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            closeChannels();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Object getId(E item) {
+        return codec.encode(item)[0];
+    }
+
+    @Override
+    protected Stream<E> fetchFromBackEnd(Query<E, CrudFilter> query) {
+        CrudFilter filter = query.getFilter().orElse(null);
+        int limit = query.getLimit();
+        List<E> page = new ArrayList<>(Math.min(limit, 1024));
+        if (limit <= 0) {
+            return page.stream();
+        }
+
+        lock.readLock().lock();
+        try {
+            if (filter == null || filter.getSortOrders().isEmpty()) {
+                scan(filter, query.getOffset(), (row, values) -> {
+                    page.add(codec.decode(values(row, values)));
+                    return page.size() < limit;
+                });
+            } else {
+                sortedPage(filter, query.getOffset(), limit)
+                        .forEach(match -> page.add(codec.decode(values(match.row, match.values))));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return page.stream();
+    }
+
+    @Override
+    protected int sizeInBackEnd(Query<E, CrudFilter> query) {
+        lock.readLock().lock();
+        try {
+            return sizeOf(query.getFilter().orElse(null));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int sizeOf(CrudFilter filter) {
+        if (filter == null || filter.getConstraints().isEmpty()) {
+            return rowCount - deletedRows + appendedRows.size();
+        }
+
+        // Counted outside of the map so that concurrent readers never wait for each other's scans
+        Map<String, String> constraints = new HashMap<>(filter.getConstraints());
+        Integer size = sizes.get(constraints);
+        if (size == null) {
+            int[] count = {0};
+            scan(filter, 0, (row, values) -> {
+                count[0]++;
+                return true;
+            });
+            size = count[0];
+            sizes.put(constraints, size);
+        }
+        return size;
+    }
+
+    /*
+     * Finds the sorted rows of a page by keeping the first offset + limit matches in a bounded
+     * heap, reading only the sort columns of the mapped rows.
+     */
+    private List<SortedRow> sortedPage(CrudFilter filter, int offset, int limit) {
+        int[] sorted = filter.getSortOrders().keySet().stream()
+                .mapToInt(this::columnIndex)
+                .toArray();
+        Comparator<SortedRow> comparator = comparator(filter);
+        long bound = (long) offset + limit;
+        PriorityQueue<SortedRow> top = new PriorityQueue<>(comparator.reversed());
+        long[] sequence = {0};
+
+        scan(filter, 0, (row, values) -> {
+            String[] keys = new String[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                keys[i] = values != null ? values[sorted[i]] : region.readString(slot(row, sorted[i]));
+            }
+            top.add(new SortedRow(row, values, keys, sequence[0]++));
+            if (top.size() > bound) {
+                top.poll();
+            }
+            return true;
+        });
+
+        List<SortedRow> page = new ArrayList<>(top);
+        page.sort(comparator);
+        return offset >= page.size() ? Collections.emptyList() : page.subList(offset, page.size());
+    }
+
+    /*
+     * Visits the current rows matching the filter constraints in order, mapped rows first with
+     * patches applied in place, followed by the rows added through the patch log. The visitor gets
+     * the patched values, or null for an unpatched mapped row, so that column values are only
+     * decoded from the mapping when needed. The first skip matches are not visited, and the scan
+     * stops as soon as the visitor returns false.
+     */
+    private void scan(CrudFilter filter, int skip, RowVisitor visitor) {
+        int[] constrained = constrainedColumns(filter);
+        String[] needles = constrainedValues(filter);
+        int remaining = skip;
+        int row = 0;
+
+        if (constrained.length == 0 && patchedRows.size() == 0) {
+            // Without deleted rows and constraints the first matches are the first rows
+            row = Math.min(skip, rowCount);
+            remaining -= row;
+        }
+
+        for (; row < rowCount; row++) {
+            String[] values = null;
+            int patch = patchedRows.get(row);
+            if (patch != LongIntHashMap.NO_VALUE) {
+                values = patches.get(patch);
+                if (values == null || !matches(values, constrained, needles)) {
+                    continue;
+                }
+            } else if (!matchesRow(row, constrained, needles)) {
+                continue;
+            }
+
+            if (remaining > 0) {
+                remaining--;
+            } else if (!visitor.visit(row, values)) {
+                return;
+            }
+        }
+
+        for (String[] values : appendedRows.values()) {
+            if (!matches(values, constrained, needles)) {
+                continue;
+            }
+            if (remaining > 0) {
+                remaining--;
+            } else if (!visitor.visit(NOT_MAPPED, values)) {
+                return;
+            }
+        }
+    }
+
+    private String[] values(int row, String[] values) {
+        return values != null ? values : readRow(row);
+    }
+
+    private boolean matchesRow(int row, int[] constrained, String[] needles) {
+        for (int i = 0; i < constrained.length; i++) {
+            if (!contains(region.readString(slot(row, constrained[i])), needles[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(String[] values, int[] constrained, String[] needles) {
+        for (int i = 0; i < constrained.length; i++) {
+            if (!contains(values[constrained[i]], needles[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean contains(String value, String lowerCaseNeedle) {
+        return value != null && value.toLowerCase().contains(lowerCaseNeedle);
+    }
+
+    private int[] constrainedColumns(CrudFilter filter) {
+        if (filter == null) {
+            return new int[0];
+        }
+
+        return filter.getConstraints().keySet().stream()
+                .mapToInt(this::columnIndex)
+                .toArray();
+    }
+
+    private static String[] constrainedValues(CrudFilter filter) {
+        if (filter == null) {
+            return new String[0];
+        }
+
+        return filter.getConstraints().values().stream()
+                .map(String::toLowerCase)
+                .toArray(String[]::new);
+    }
+
+    private static Comparator<SortedRow> comparator(CrudFilter filter) {
+        List<SortDirection> directions = new ArrayList<>(filter.getSortOrders().values());
+        Comparator<SortedRow> comparator = (o1, o2) -> 0;
+        for (int i = 0; i < directions.size(); i++) {
+            int key = i;
+            Comparator<SortedRow> clause = Comparator.comparing(
+                    match -> match.keys[key], Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+            comparator = comparator.thenComparing(directions.get(i) == SortDirection.DESCENDING
+                    ? clause.reversed()
+                    : clause);
+        }
+        // Rows that sort equal keep their scan order
+        return comparator.thenComparingLong(match -> match.sequence);
+    }
+
+    private int columnIndex(String column) {
+        int index = codec.getColumns().indexOf(column);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown column '" + column + "'");
+        }
+        return index;
+    }
+
+    private String[] readRow(int row) {
+        String[] values = new String[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            values[column] = region.readString(slot(row, column));
+        }
+        return values;
+    }
+
+    private long slot(int row, int column) {
+        return rowsOffset + ((long) row * columnCount + column) * SLOT_BYTES;
+    }
+
+    private void checkWidth(String[] values) {
+        if (values.length != codec.getColumns().size()) {
+            throw new IllegalArgumentException("Expected " + codec.getColumns().size()
+                    + " values but the codec produced " + values.length);
+        }
+    }
+
+    private void writeLog(byte operation, String key, String[] values) {
+        Objects.requireNonNull(key, "The key column cannot be null");
+
+        lock.writeLock().lock();
+        try {
+            ByteBuffer record = encodeLogRecord(operation, key, values);
+            while (record.hasRemaining()) {
+                log.write(record);
+            }
+            log.force(false);
+
+            apply(key, values);
+            logEntries++;
+            if (logEntries >= compactionThreshold) {
+                compact();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /*
+     * Indexes the mapped rows by the hash of their key with a single pass over the key column.
+     * Only the keys whose hash collides with the key of an earlier row are kept on the heap.
+     */
+    private void indexKeys() {
+        keyIndex = new LongIntHashMap(rowCount);
+        collidingKeys = new HashMap<>();
+        for (int row = 0; row < rowCount; row++) {
+            String key = region.readString(slot(row, 0));
+            if (keyIndex.get(keyHash(key)) == LongIntHashMap.NO_VALUE) {
+                keyIndex.put(keyHash(key), row);
+            } else {
+                collidingKeys.putIfAbsent(key, row);
+            }
+        }
+    }
+
+    private int mappedRow(String key) {
+        int row = keyIndex.get(keyHash(key));
+        if (row == LongIntHashMap.NO_VALUE) {
+            return NOT_MAPPED;
+        }
+        if (key.equals(region.readString(slot(row, 0)))) {
+            return row;
+        }
+        return collidingKeys.getOrDefault(key, NOT_MAPPED);
+    }
+
+    // 64-bit FNV-1a, so that distinct keys rarely share a hash
+    private static long keyHash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private void apply(String key, String[] values) {
+        sizes.clear();
+        int row = mappedRow(key);
+        if (row == NOT_MAPPED) {
+            if (values == null) {
+                appendedRows.remove(key);
+            } else {
+                appendedRows.put(key, values);
+            }
+            return;
+        }
+
+        int patch = patchedRows.get(row);
+        boolean wasDeleted = patch != LongIntHashMap.NO_VALUE && patches.get(patch) == null;
+        if (patch == LongIntHashMap.NO_VALUE) {
+            patchedRows.put(row, patches.size());
+            patches.add(values);
+        } else {
+            patches.set(patch, values);
+        }
+
+        if (values == null && !wasDeleted) {
+            deletedRows++;
+        } else if (values != null && wasDeleted) {
+            deletedRows--;
+        }
+    }
+
+    private void clearOverlay() {
+        patchedRows.clear();
+        patches.clear();
+        appendedRows.clear();
+        deletedRows = 0;
+        logEntries = 0;
+    }
+
+    /*
+     * A record is the payload length, the CRC32 checksum of the payload and the payload itself:
+     * the operation, the value count, the key and the values.
+     */
+    private static ByteBuffer encodeLogRecord(byte operation, String key, String[] values) {
+        List<byte[]> encoded = new ArrayList<>();
+        encoded.add(key.getBytes(StandardCharsets.UTF_8));
+        if (values != null) {
+            for (String value : values) {
+                encoded.add(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        int size = 1 + Integer.BYTES + encoded.stream()
+                .mapToInt(bytes -> Integer.BYTES + (bytes == null ? 0 : bytes.length))
+                .sum();
+
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Integer.BYTES + size);
+        buffer.putInt(size);
+        buffer.putInt(0);
+        buffer.put(operation);
+        buffer.putInt(encoded.size() - 1);
+        encoded.forEach(bytes -> {
+            buffer.putInt(bytes == null ? NULL_LENGTH : bytes.length);
+            if (bytes != null) {
+                buffer.put(bytes);
+            }
+        });
+        buffer.putInt(Integer.BYTES, checksum(buffer.array(), 2 * Integer.BYTES, size));
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private void replayLog() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) log.size());
+        log.read(buffer, 0);
+        buffer.flip();
+
+        List<String> keys = new ArrayList<>();
+        List<String[]> records = new ArrayList<>();
+        int validLength = 0;
+        while (buffer.remaining() >= 2 * Integer.BYTES) {
+            int size = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (size <= 0 || size > buffer.remaining()
+                    || checksum(buffer.array(), buffer.position(), size) != checksum) {
+                // A torn or corrupt record ends the log
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.wrap(buffer.array(), buffer.position(), size).slice();
+            try {
+                byte operation = payload.get();
+                int count = payload.getInt();
+                keys.add(readLogString(payload));
+                String[] values = operation == LOG_DELETE ? null : new String[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = readLogString(payload);
+                }
+                records.add(values);
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                break;
+            }
+
+            buffer.position(buffer.position() + size);
+            validLength = buffer.position();
+        }
+
+        if (validLength < log.size()) {
+            log.truncate(validLength);
+        }
+        log.position(validLength);
+
+        for (int i = 0; i < keys.size(); i++) {
+            apply(keys.get(i), records.get(i));
+            logEntries++;
+        }
+    }
+
+    private static String readLogString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void open() throws IOException {
+        Path file = Paths.get(filePath);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            region = new MappedRegion(channel);
+        }
+
+        if (region.readInt(0) != MAGIC || region.readInt(4) != FORMAT_VERSION) {
+            throw new IOException(filePath + " is not a Crud data file");
+        }
+
+        rowCount = region.readInt(8);
+        columnCount = region.readInt(12);
+        rowsOffset = region.readLong(16);
+        heapOffset = region.readLong(24);
+
+        if (!readColumns().equals(codec.getColumns())) {
+            throw new IOException("The columns of " + filePath + " do not match the codec columns "
+                    + codec.getColumns());
+        }
+
+        log = FileChannel.open(logPath(file), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        log.position(log.size());
+
+        indexKeys();
+        sizes = new ConcurrentHashMap<>();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        open();
+    }
+
+    private List<String> readColumns() {
+        List<String> columns = new ArrayList<>(columnCount);
+        long position = 32;
+        for (int i = 0; i < columnCount; i++) {
+            int length = region.readInt(position);
+            byte[] bytes = new byte[length];
+            region.read(position + Integer.BYTES, bytes);
+            columns.add(new String(bytes, StandardCharsets.UTF_8));
+            position += Integer.BYTES + length;
+        }
+        return columns;
+    }
+
+    private void closeChannels() throws IOException {
+        region = null;
+        if (log != null) {
+            log.close();
+            log = null;
+        }
+    }
+
+    private static Path logPath(Path file) {
+        return file.resolveSibling(file.getFileName() + ".log");
+    }
+
+    private static void writeRows(Path file, List<String> columns,
+                                  Consumer<Consumer<String[]>> rows, int rowCount) throws IOException {
+        Path heap = Files.createTempFile(file.toAbsolutePath().getParent(), "crud", ".heap");
+        try {
+            byte[][] names = columns.stream()
+                    .map(column -> column.getBytes(StandardCharsets.UTF_8))
+                    .toArray(byte[][]::new);
+            long rowsOffset = 32 + Arrays.stream(names).mapToLong(name -> Integer.BYTES + name.length).sum();
+            long heapOffset = rowsOffset + (long) rowCount * columns.size() * SLOT_BYTES;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(file)));
+                 DataOutputStream heapOut = new DataOutputStream(new BufferedOutputStream(
+                         Files.newOutputStream(heap)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(rowCount);
+                out.writeInt(columns.size());
+                out.writeLong(rowsOffset);
+                out.writeLong(heapOffset);
+                for (byte[] name : names) {
+                    out.writeInt(name.length);
+                    out.write(name);
+                }
+
+                int[] written = {0};
+                rows.accept(values -> {
+                    try {
+                        for (String value : values) {
+                            byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+                            out.writeLong(heapOut.size());
+                            out.writeInt(bytes == null ? NULL_LENGTH : bytes.length);
+                            if (bytes != null) {
+                                heapOut.write(bytes);
+                            }
+                        }
+                        written[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+
+                if (written[0] != rowCount) {
+                    throw new IllegalStateException("Expected " + rowCount + " rows but got " + written[0]);
+                }
+
+                heapOut.flush();
+                Files.copy(heap, out);
+            }
+        } finally {
+            Files.deleteIfExists(heap);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowVisitor {
+
+        boolean visit(int row, String[] values);
+    }
+
+    private static final class SortedRow {
+
+        private final int row;
+        private final String[] values;
+        private final String[] keys;
+        private final long sequence;
+
+        private SortedRow(int row, String[] values, String[] keys, long sequence) {
+            this.row = row;
+            this.values = values;
+            this.keys = keys;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * A read-only mapping of a whole file, split in segments since a single mapping
+     * cannot exceed 2GB.
+     */
+    private final class MappedRegion {
+
+        private static final int SEGMENT_BITS = 30;
+        private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+        private final MappedByteBuffer[] segments;
+
+        private MappedRegion(FileChannel channel) throws IOException {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+            segments = new MappedByteBuffer[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_BITS;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(1L << SEGMENT_BITS, size - start));
+            }
+        }
+
+        private byte readByte(long position) {
+            return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+        }
+
+        private int readInt(long position) {
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+            int index = (int) (position & SEGMENT_MASK);
+            if (index + Integer.BYTES <= segment.limit()) {
+                return segment.getInt(index);
+            }
+            int value = 0;
+            for (int i = 0; i < Integer.BYTES; i++) {
+                value = (value << 8) | (readByte(position + i) & 0xFF);
+            }
+            return value;
+        }
+
+        private long readLong(long position) {
+            return ((long) readInt(position) << 32) | (readInt(position + Integer.BYTES) & 0xFFFFFFFFL);
+        }
+
+        private void read(long position, byte[] target) {
+            int copied = 0;
+            while (copied < target.length) {
+                long current = position + copied;
+                ByteBuffer segment = segments[(int) (current >>> SEGMENT_BITS)].duplicate();
+                segment.position((int) (current & SEGMENT_MASK));
+                int length = Math.min(target.length - copied, segment.remaining());
+                segment.get(target, copied, length);
+                copied += length;
+            }
+        }
+
+        private String readString(long slot) {
+            int length = readInt(slot + Long.BYTES);
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            read(heapOffset + readLong(slot), bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Converts beans to and from the string values stored in a {@link MappedFileCrudDataProvider}.
+     * The first column is used as the unique key of a row.
+     *
+     * @param <E> the bean type
+     */
+    public interface RowCodec<E> extends Serializable {
+
+        /**
+         * Gets the column names, which are also the keys used in {@link CrudFilter} constraints
+         * and sort orders. The first column is the key column.
+         *
+         * @return the column names
+         */
+        List<String> getColumns();
+
+        /**
+         * Converts a bean to its column values, in the order of {@link #getColumns()}.
+         *
+         * @param item the bean
+         * @return the column values, possibly containing nulls except for the key column
+         */
+        String[] encode(E item);
+
+        /**
+         * Creates a bean from its column values.
+         *
+         * @param values the column values, in the order of {@link #getColumns()}
+         * @return a new bean
+         */
+        E decode(String[] values);
+    }
+}
@@ -0,0 +1,80 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+import com.vaadin.flow.function.SerializableFunction;
+import com.vaadin.flow.function.SerializableSupplier;
+
+import java.util.Objects;
+
+/**
+ * A supplier of new {@link Crud} items creating copies of a prototype item. The prototype is
+ * created once, when the first item is needed, so that default values which are expensive to
+ * compute, for instance by querying a database, are not computed for every new item.
+ * Call {@link #refresh()} when the defaults change.
+ *
+ * <pre>
+ * {@code
+ *   PrototypeItemSupplier<Person> newPersons = new PrototypeItemSupplier<>(
+ *           () -> new Person(settings.getDefaultCountry()), Person::clone);
+ *   crud.setNewItemSupplier(newPersons);
+ * }
+ * </pre>
+ *
+ * @param <E> the bean type
+ */
+public class PrototypeItemSupplier<E> implements SerializableSupplier<E> {
+
+    private final SerializableSupplier<E> prototypeFactory;
+    private final SerializableFunction<E, E> copier;
+    private E prototype;
+
+    /**
+     * Creates a new supplier.
+     *
+     * @param prototypeFactory the function creating the prototype with its default values
+     * @param copier the function copying the prototype into a new item
+     */
+    public PrototypeItemSupplier(SerializableSupplier<E> prototypeFactory, SerializableFunction<E, E> copier) {
+        this.prototypeFactory = Objects.requireNonNull(prototypeFactory, "Prototype factory cannot be null");
+        this.copier = Objects.requireNonNull(copier, "Copier cannot be null");
+    }
+
+    /**
+     * Creates a new item as a copy of the prototype.
+     *
+     * @return a new item
+     */
+    @Override
+    public E get() {
+        final E currentPrototype;
+        synchronized (this) {
+            if (prototype == null) {
+                prototype = Objects.requireNonNull(prototypeFactory.get(), "Prototype cannot be null");
+            }
+            currentPrototype = prototype;
+        }
+        return copier.apply(currentPrototype);
+    }
+
+    /**
+     * Discards the prototype, so that a new one is created for the next item.
+     */
+    public synchronized void refresh() {
+        prototype = null;
+    }
+}
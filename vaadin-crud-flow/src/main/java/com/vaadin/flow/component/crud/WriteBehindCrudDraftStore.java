@@ -0,0 +1,220 @@
+package com.vaadin.flow.component.crud;
+
+/*
+ * #%L
+ * Vaadin Crud for Vaadin 10
+ * %%
+ * Copyright (C) 2018 Vaadin Ltd
+ * %%
+ * This program is available under Commercial Vaadin Add-On License 3.0
+ * (CVALv3).
+ *
+ * See the file license.html distributed with this software for more
+ * information about licensing.
+ *
+ * You should have received a copy of the CVALv3 along with this program.
+ * If not, see <http://vaadin.com/license/cval-3>.
+ * #L%
+ */
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.shared.Registration;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link CrudDraftStore} collecting drafts in memory and writing them to another store in
+ * batches. Drafts saved for the same item before a flush are coalesced, so that only the latest
+ * draft of each item is written. While there are pending drafts they are flushed periodically by
+ * a background thread of the store, and they can be flushed explicitly with {@link #flush()}.
+ * <p>
+ * The thread is stopped while there are no pending drafts. Pending drafts are also flushed when
+ * the JVM shuts down, but stores used by a web application should be closed when the application
+ * is undeployed, for example with {@link #closeOnServiceDestroy(VaadinService)}.
+ * <p>
+ * If writing a batch fails, its drafts stay pending and are written by the next flush, unless
+ * newer drafts of the same items have been saved meanwhile.
+ */
+public class WriteBehindCrudDraftStore implements CrudDraftStore {
+
+    private final CrudDraftStore store;
+    private final long flushIntervalMillis;
+    private final Map<Object, Serializable> pending = new LinkedHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    // The batch being written, still served by load until the write completes
+    private Map<Object, Serializable> flushing = Collections.emptyMap();
+    private transient ScheduledExecutorService flushExecutor;
+    private transient ScheduledFuture<?> flushTask;
+    private transient Thread shutdownHook;
+
+    /**
+     * Creates a store writing pending drafts to the given store at the given interval.
+     *
+     * @param store the store the drafts are written to
+     * @param flushInterval the interval between flushes
+     */
+    public WriteBehindCrudDraftStore(CrudDraftStore store, Duration flushInterval) {
+        this.store = Objects.requireNonNull(store, "Store cannot be null");
+        Objects.requireNonNull(flushInterval, "Flush interval cannot be null");
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.flushIntervalMillis = flushInterval.toMillis();
+    }
+
+    @Override
+    public synchronized void save(Object key, Serializable draft) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        pending.put(key, draft);
+        scheduleFlush();
+    }
+
+    @Override
+    public synchronized Optional<Serializable> load(Object key) {
+        if (pending.containsKey(key)) {
+            return Optional.ofNullable(pending.get(key));
+        }
+        if (flushing.containsKey(key)) {
+            return Optional.ofNullable(flushing.get(key));
+        }
+        return store.load(key);
+    }
+
+    /**
+     * Writes all pending drafts to the underlying store.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            final Map<Object, Serializable> batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = new LinkedHashMap<>(pending);
+                pending.clear();
+                flushing = batch;
+            }
+
+            try {
+                store.saveAll(batch);
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    // Keep the failed drafts pending unless they were replaced meanwhile
+                    batch.forEach(pending::putIfAbsent);
+                }
+                throw e;
+            } finally {
+                synchronized (this) {
+                    flushing = Collections.emptyMap();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of drafts not yet written to the underlying store.
+     *
+     * @return the number of pending drafts
+     */
+    public synchronized int getPendingCount() {
+        return pending.size() + flushing.size();
+    }
+
+    /**
+     * Stops the periodic flushing and writes all pending drafts.
+     */
+    public void close() {
+        synchronized (this) {
+            stopFlushing();
+        }
+        flush();
+    }
+
+    /**
+     * Closes this store when the given service is destroyed, so that pending drafts are written
+     * and the flushing thread is stopped when the application is undeployed.
+     *
+     * @param service the service to follow
+     * @return a handle that can be used to stop following the service
+     */
+    public Registration closeOnServiceDestroy(VaadinService service) {
+        Objects.requireNonNull(service, "Service cannot be null");
+        return service.addServiceDestroyListener(event -> close());
+    }
+
+    private void scheduleFlush() {
+        if (flushTask != null) {
+            return;
+        }
+        flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "crud-draft-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushTask = flushExecutor.scheduleWithFixedDelay(this::flushQuietly,
+                flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        shutdownHook = new Thread(this::flushOnShutdown, "crud-draft-flush-shutdown");
+        try {
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } catch (IllegalStateException e) {
+            // The JVM is already shutting down
+            shutdownHook = null;
+        }
+    }
+
+    // Called holding the lock of this store
+    private void stopFlushing() {
+        if (flushTask == null) {
+            return;
+        }
+        flushTask.cancel(false);
+        flushTask = null;
+        flushExecutor.shutdown();
+        flushExecutor = null;
+        if (shutdownHook != null) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The JVM is already shutting down and runs the hook
+            }
+            shutdownHook = null;
+        }
+    }
+
+    private void flushOnShutdown() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // Nothing more can be done for the drafts while the JVM shuts down
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // The drafts stay pending and are retried on the next flush
+            return;
+        }
+
+        synchronized (this) {
+            // Stop flushing while idle so that unused stores are not kept reachable
+            if (pending.isEmpty()) {
+                stopFlushing();
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.ValidationException;
+import com.vaadin.flow.data.binder.ValidationResult;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BinderCrudEditorTest {
+
+    private final TextField firstName = new TextField();
+    private final TextField lastName = new TextField();
+    private final BinderCrudEditor<Person> editor = createEditor();
+
+    @Test
+    public void changedPropertiesAreReported() {
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        lastName.setValue("Otto");
+        editor.writeItemChanges();
+
+        List<CrudPropertyChange> changes = editor.getItemChanges().get();
+        Assert.assertEquals(1, changes.size());
+        Assert.assertEquals("lastName", changes.get(0).getPropertyName());
+        Assert.assertEquals("Oladeji", changes.get(0).getOldValue());
+        Assert.assertEquals("Otto", changes.get(0).getNewValue());
+    }
+
+    @Test
+    public void unchangedItemHasNoChanges() {
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        firstName.setValue("Manolo");
+        firstName.setValue("Sayo");
+        editor.writeItemChanges();
+
+        Assert.assertTrue(editor.getItemChanges().get().isEmpty());
+    }
+
+    @Test
+    public void clearedEditorHasNoChanges() {
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        editor.clear();
+
+        Assert.assertFalse(editor.getItemChanges().isPresent());
+    }
+
+    @Test
+    public void onlyBoundPropertiesAreRead() {
+        final Person person = new Person("Sayo", "Oladeji");
+        editor.setItem(person);
+        lastName.setValue("Otto");
+        editor.writeItemChanges();
+
+        Assert.assertEquals(0, person.addressReads);
+        Assert.assertEquals(1, editor.getItemChanges().get().size());
+        Assert.assertEquals(0, person.addressReads);
+    }
+
+    @Test
+    public void incrementalValidationSkipsUnchangedFields() {
+        final AtomicInteger validations = new AtomicInteger();
+        final Binder<Person> binder = new Binder<>(Person.class);
+        binder.forField(firstName)
+                .withValidator(value -> validations.incrementAndGet() > 0, "Never fails")
+                .bind(Person::getFirstName, Person::setFirstName);
+        binder.bind(lastName, Person::getLastName, Person::setLastName);
+        final BinderCrudEditor<Person> incrementalEditor = new BinderCrudEditor<>(binder);
+        incrementalEditor.setIncrementalValidation(true);
+
+        incrementalEditor.setItem(new Person("Sayo", "Oladeji"), true);
+        Assert.assertEquals(1, validations.get());
+
+        lastName.setValue("Otto");
+        Assert.assertTrue(incrementalEditor.validate());
+        Assert.assertEquals(1, validations.get());
+
+        firstName.setValue("Manolo");
+        final int before = validations.get();
+        Assert.assertTrue(incrementalEditor.validate());
+        Assert.assertEquals(before + 1, validations.get());
+    }
+
+    @Test
+    public void incrementalValidationDoesNotReuseResultsOfOtherItems() {
+        final AtomicInteger validations = new AtomicInteger();
+        final Binder<Person> binder = new Binder<>(Person.class);
+        binder.forField(firstName)
+                .withValidator(value -> validations.incrementAndGet() > 0, "Never fails")
+                .bind(Person::getFirstName, Person::setFirstName);
+        final BinderCrudEditor<Person> incrementalEditor = new BinderCrudEditor<>(binder);
+        incrementalEditor.setIncrementalValidation(true);
+
+        incrementalEditor.setItem(new Person("Sayo", "Oladeji"), true);
+        final Person other = new Person("Sayo", "Otto");
+        incrementalEditor.setItem(other, true);
+        Assert.assertEquals(2, validations.get());
+
+        Assert.assertTrue(incrementalEditor.validate());
+        Assert.assertEquals(2, validations.get());
+    }
+
+    @Test
+    public void binderValidatorsRunOnWriteAfterIncrementalValidation() {
+        final Binder<Person> binder = new Binder<>(Person.class);
+        binder.bind(firstName, Person::getFirstName, Person::setFirstName);
+        binder.bind(lastName, Person::getLastName, Person::setLastName);
+        binder.withValidator(person -> !person.getFirstName().equals(person.getLastName()),
+                "Names must differ");
+        final BinderCrudEditor<Person> incrementalEditor = new BinderCrudEditor<>(binder);
+        incrementalEditor.setIncrementalValidation(true);
+
+        incrementalEditor.setItem(new Person("Sayo", "Oladeji"), true);
+        lastName.setValue("Sayo");
+        Assert.assertTrue(incrementalEditor.validate());
+        try {
+            incrementalEditor.writeItemChanges();
+            Assert.fail("The binder validator should have failed");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getCause() instanceof ValidationException);
+        }
+    }
+
+    @Test
+    public void clearingDoesNotStartAsyncValidators() {
+        final List<String> checkedValues = new ArrayList<>();
+        editor.addAsyncValidator(lastName, value -> {
+            checkedValues.add(value);
+            return CompletableFuture.completedFuture(ValidationResult.error("Already taken"));
+        });
+        editor.setItem(new Person("Sayo", "Oladeji"), true);
+        Assert.assertTrue(lastName.isInvalid());
+
+        checkedValues.clear();
+        editor.clear();
+        Assert.assertTrue(checkedValues.isEmpty());
+        Assert.assertFalse(lastName.isInvalid());
+    }
+
+    @Test
+    public void asyncValidatorGatesValidation() {
+        editor.addAsyncValidator(lastName, value -> CompletableFuture.completedFuture(
+                "Taken".equals(value) ? ValidationResult.error("Already taken") : ValidationResult.ok()));
+        editor.setItem(new Person("Sayo", "Oladeji"), true);
+        Assert.assertTrue(editor.validate());
+
+        lastName.setValue("Taken");
+        Assert.assertFalse(editor.validate());
+        Assert.assertTrue(lastName.isInvalid());
+        Assert.assertEquals("Already taken", lastName.getErrorMessage());
+    }
+
+    @Test
+    public void pendingAsyncValidatorFailsValidationWithoutWaiting() {
+        final CompletableFuture<ValidationResult> pending = new CompletableFuture<>();
+        editor.setAsyncValidationPendingMessage("Checking");
+        editor.addAsyncValidator(lastName, value -> pending);
+        editor.setItem(new Person("Sayo", "Oladeji"));
+
+        Assert.assertFalse(editor.validate());
+        Assert.assertEquals("Checking", lastName.getErrorMessage());
+
+        pending.complete(ValidationResult.ok());
+        Assert.assertFalse(lastName.isInvalid());
+        Assert.assertTrue(editor.validate());
+    }
+
+    @Test
+    public void dirtyStateChangesAreNotifiedOnce() {
+        final List<Boolean> states = new ArrayList<>();
+        editor.addDirtyChangeListener(states::add);
+
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        firstName.setValue("Manolo");
+        lastName.setValue("Otto");
+        Assert.assertEquals(Collections.singletonList(true), states);
+
+        editor.setItem(new Person("Guille", "Guille"));
+        Assert.assertEquals(Arrays.asList(true, false), states);
+    }
+
+    @Test
+    public void changesAreMergedOntoCurrentItem() {
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        lastName.setValue("Otto");
+        editor.writeItemChanges();
+
+        final Person current = new Person("Manolo", "Oladeji");
+        Assert.assertTrue(editor.mergeItemChanges(current));
+
+        Assert.assertSame(current, editor.getItem());
+        Assert.assertEquals("Manolo", firstName.getValue());
+        Assert.assertEquals("Otto", lastName.getValue());
+        Assert.assertEquals("Otto", current.getLastName());
+    }
+
+    @Test
+    public void changesOfFieldsBoundWithFunctionsAreNotMerged() {
+        final Binder<Person> binder = new Binder<>(Person.class);
+        binder.bind(firstName, Person::getFirstName, Person::setFirstName);
+        binder.bind(lastName, "lastName");
+        final BinderCrudEditor<Person> functionEditor = new BinderCrudEditor<>(binder);
+        final Person person = new Person("Sayo", "Oladeji");
+        functionEditor.setItem(person);
+        firstName.setValue("Manolo");
+        functionEditor.writeItemChanges();
+
+        Assert.assertFalse(functionEditor.getItemChanges().isPresent());
+        Assert.assertFalse(functionEditor.mergeItemChanges(new Person("Guille", "Otto")));
+        Assert.assertSame(person, functionEditor.getItem());
+        Assert.assertEquals("Manolo", firstName.getValue());
+        Assert.assertEquals("Manolo", person.getFirstName());
+    }
+
+    @Test
+    public void draftIsRestored() {
+        final List<Serializable> drafts = new ArrayList<>();
+        editor.addDraftListener(drafts::add);
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        Assert.assertTrue(drafts.isEmpty());
+
+        lastName.setValue("Otto");
+        Assert.assertEquals(1, drafts.size());
+
+        editor.setItem(new Person("Sayo", "Oladeji"));
+        editor.restoreDraft(drafts.get(0));
+        Assert.assertEquals("Sayo", firstName.getValue());
+        Assert.assertEquals("Otto", lastName.getValue());
+        Assert.assertEquals(1, drafts.size());
+    }
+
+    @Test
+    public void switchingItemsOnlyUpdatesChangedFields() {
+        final List<String> changedFields = new ArrayList<>();
+        firstName.addValueChangeListener(e -> changedFields.add("firstName"));
+        lastName.addValueChangeListener(e -> changedFields.add("lastName"));
+
+        editor.setItem(new Person("Sayo", "Oladeji"), true);
+        editor.setItem(new Person("Manolo", "Oladeji"), true);
+        changedFields.clear();
+
+        editor.setItem(new Person("Guille", "Oladeji"), true);
+        Assert.assertEquals(Collections.singletonList("firstName"), changedFields);
+        Assert.assertEquals("Guille", firstName.getValue());
+        Assert.assertEquals("Oladeji", lastName.getValue());
+
+        lastName.setValue("Otto");
+        changedFields.clear();
+        editor.setItem(new Person("Guille", "Oladeji"), true);
+        Assert.assertEquals("Oladeji", lastName.getValue());
+    }
+
+    @Test
+    public void switchingItemsLeavesNoChanges() {
+        final Binder<Person> binder = new Binder<>(Person.class);
+        binder.bind(firstName, "firstName");
+        binder.bind(lastName, "lastName");
+        final BinderCrudEditor<Person> switchingEditor = new BinderCrudEditor<>(binder);
+        final List<Serializable> drafts = new ArrayList<>();
+        final List<Boolean> dirtyStates = new ArrayList<>();
+        switchingEditor.addDraftListener(drafts::add);
+        switchingEditor.addDirtyChangeListener(dirtyStates::add);
+
+        switchingEditor.setItem(new Person("Sayo", "Oladeji"), true);
+        switchingEditor.setItem(new Person("Manolo", "Oladeji"), true);
+        switchingEditor.setItem(new Person("Guille", "Oladeji"), true);
+
+        Assert.assertFalse(binder.hasChanges());
+        Assert.assertTrue(drafts.isEmpty());
+        Assert.assertTrue(dirtyStates.isEmpty());
+        Assert.assertEquals("Guille", firstName.getValue());
+    }
+
+    private BinderCrudEditor<Person> createEditor() {
+        Binder<Person> binder = new Binder<>(Person.class);
+        binder.bind(firstName, "firstName");
+        binder.bind(lastName, "lastName");
+        return new BinderCrudEditor<>(binder);
+    }
+
+    public static class Person {
+        private String firstName;
+        private String lastName;
+        private int addressReads;
+
+        public Person(String firstName, String lastName) {
+            this.firstName = firstName;
+            this.lastName = lastName;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public void setLastName(String lastName) {
+            this.lastName = lastName;
+        }
+
+        public String getAddress() {
+            // Stands in for a lazily loaded association
+            addressReads++;
+            return null;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.vaadin.flow.component.crud;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class CrudBeanMetadataTest {
+
+    @Test
+    public void metadataIsSharedPerType() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<CrudBeanMetadata<Person>>> futures = executor.invokeAll(IntStream.range(0, 8)
+                    .mapToObj(i -> (Callable<CrudBeanMetadata<Person>>)
+                            () -> CrudBeanMetadata.get(Person.class))
+                    .collect(Collectors.toList()));
+            for (Future<CrudBeanMetadata<Person>> future : futures) {
+                Assert.assertSame(CrudBeanMetadata.get(Person.class), future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void columnsAreSortedByName() {
+        Assert.assertEquals(Arrays.asList("age", "name", "tags"),
+                CrudBeanMetadata.get(Person.class).getColumnKeys());
+    }
+
+    @Test
+    public void deserializedMetadataIsShared() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(CrudBeanMetadata.get(Person.class));
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assert.assertSame(CrudBeanMetadata.get(Person.class), in.readObject());
+        }
+    }
+
+    public static class Person {
+        private String name;
+        private int age;
+        private List<String> tags;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        public void setTags(List<String> tags) {
+            this.tags = tags;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.data.provider.Query;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CrudGridTest {
+
+    private final CrudGrid<Person> grid = new CrudGrid<>(Person.class, true);
+
+    @Test
+    public void filtersStartAsPlaceholders() {
+        Assert.assertNull(filterField("firstName"));
+        Assert.assertNull(filterField("lastName"));
+        Assert.assertTrue(grid.getFilter().getConstraints().isEmpty());
+    }
+
+    @Test
+    public void placeholderIsReplacedWithFieldOnUse() {
+        grid.materializeFilter("lastName", "Ro", false);
+
+        TextField field = filterField("lastName");
+        Assert.assertNotNull(field);
+        Assert.assertEquals("Search", field.getElement().getAttribute("crud-role"));
+        Assert.assertEquals("Ro", grid.getFilter().getConstraints().get("lastName"));
+        Assert.assertNull(filterField("firstName"));
+
+        // A second event for the same column keeps the existing field
+        grid.materializeFilter("lastName", "", true);
+        Assert.assertSame(field, filterField("lastName"));
+
+        field.clear();
+        Assert.assertTrue(grid.getFilter().getConstraints().isEmpty());
+    }
+
+    @Test
+    public void inputTypedIntoPlaceholderIsRestoredInField() {
+        final UI ui = new UI();
+        ui.add(grid);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(1, filterInputScripts(ui, grid).size());
+
+        grid.materializeFilter("lastName", "", true);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+
+        final List<PendingJavaScriptInvocation> restores = filterInputScripts(ui, filterField("lastName"));
+        Assert.assertEquals(1, restores.size());
+        Assert.assertEquals("lastName", restores.get(0).getInvocation().getParameters().get(1));
+    }
+
+    private static List<PendingJavaScriptInvocation> filterInputScripts(UI ui, Component owner) {
+        return ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .filter(invocation -> invocation.getOwner() == owner.getElement().getNode())
+                .filter(invocation -> invocation.getInvocation().getExpression().contains("__crudFilterInput"))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void columnRangeHidesOtherColumns() {
+        grid.setIdentityProperties();
+        grid.materializeFilter("email", "", false);
+        grid.materializeFilter("firstName", "Sa", false);
+        grid.setColumnRange(2, 1);
+
+        Assert.assertFalse(grid.getColumnByKey("email").isVisible());
+        Assert.assertFalse(grid.getColumnByKey("firstName").isVisible());
+        Assert.assertTrue(grid.getColumnByKey("lastName").isVisible());
+        Assert.assertEquals(Collections.singleton("lastName"), grid.getFilter().getProperties());
+
+        // Empty and unused filters of hidden columns are dropped, those in use are kept
+        Assert.assertNull(grid.getFilterComponent("email"));
+        Assert.assertNotNull(filterField("firstName"));
+        Assert.assertEquals("Sa", grid.getFilter().getConstraints().get("firstName"));
+        Assert.assertNull(filterField("lastName"));
+
+        grid.setColumnRange(0, 0);
+        Assert.assertTrue(grid.getColumnByKey("email").isVisible());
+        Assert.assertNull(filterField("email"));
+        Assert.assertEquals(Arrays.asList("email", "firstName", "lastName"),
+                new ArrayList<>(grid.getFilter().getProperties()));
+    }
+
+    @Test
+    public void identityPropertiesAreAlwaysLoaded() {
+        grid.setColumnRange(2, 1);
+        Assert.assertFalse(grid.getIdentityProperties().isPresent());
+        Assert.assertTrue(grid.getFilter().getProperties().isEmpty());
+
+        grid.setIdentityProperties("email");
+        Assert.assertEquals(Arrays.asList("lastName", "email"), new ArrayList<>(grid.getFilter().getProperties()));
+    }
+
+    @Test
+    public void editorPropertiesAreLoadedWithColumns() {
+        Binder<Person> binder = new Binder<>(Person.class);
+        binder.bind(new TextField(), "email");
+        Crud<Person> crud = new Crud<>(Person.class, grid, new BinderCrudEditor<>(binder));
+        grid.setIdentityProperties();
+        grid.setColumnRange(1, 1);
+
+        Assert.assertEquals(Arrays.asList("firstName", "email"), new ArrayList<>(grid.getFilter().getProperties()));
+
+        // Properties of fields bound with getters and setters are not known, so all are loaded
+        binder.bind(new TextField(), Person::getLastName, Person::setLastName);
+        crud.setEditor(new BinderCrudEditor<>(binder));
+        Assert.assertTrue(grid.getFilter().getProperties().isEmpty());
+
+        // The edit item loader loads what the editor needs
+        crud.setEditItemLoader(person -> person);
+        Assert.assertEquals(Collections.singleton("firstName"), grid.getFilter().getProperties());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void metricsAreSetWithoutReplacingDataProvider() {
+        grid.setDataProvider(DataProvider.<Person, CrudFilter>fromFilteringCallbacks(
+                query -> Stream.of(new Person()), query -> 1));
+        final DataProvider<Person, Void> provider
+                = (DataProvider<Person, Void>) grid.getDataCommunicator().getDataProvider();
+
+        final InMemoryCrudMetrics metrics = new InMemoryCrudMetrics();
+        grid.setMetrics(metrics);
+        Assert.assertSame(provider, grid.getDataCommunicator().getDataProvider());
+
+        Assert.assertEquals(1, provider.size(new Query<>()));
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.COUNT));
+
+        grid.setMetrics(null);
+        Assert.assertSame(provider, grid.getDataCommunicator().getDataProvider());
+        Assert.assertEquals(1, provider.size(new Query<>()));
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.COUNT));
+    }
+
+    private TextField filterField(String key) {
+        Component component = grid.getFilterComponent(key);
+        Assert.assertNotNull(component);
+        return component instanceof TextField ? (TextField) component : null;
+    }
+
+    public static class Person {
+        private String email;
+        private String firstName;
+        private String lastName;
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public String getLastName() {
+            return lastName;
+        }
+
+        public void setLastName(String lastName) {
+            this.lastName = lastName;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.component.ComponentEvent;
+import com.vaadin.flow.component.ComponentEventListener;
+import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.shared.Registration;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CrudListenersTest {
+
+    private final CrudListeners<TestEvent> listeners = new CrudListeners<>();
+    private final List<String> calls = new ArrayList<>();
+
+    @Test
+    public void listenersAreCalledInOrderOnce() {
+        ComponentEventListener<TestEvent> first = e -> calls.add("first");
+        listeners.add(first);
+        listeners.add(e -> calls.add("second"));
+        listeners.add(first);
+
+        listeners.fire(new TestEvent());
+        Assert.assertEquals(Arrays.asList("first", "second"), calls);
+    }
+
+    @Test
+    public void listenersCanBeRemovedWhileFiring() {
+        Registration[] registrations = new Registration[3];
+        registrations[0] = listeners.add(e -> {
+            calls.add("first");
+            registrations[0].remove();
+            registrations[1].remove();
+        });
+        registrations[1] = listeners.add(e -> calls.add("second"));
+        registrations[2] = listeners.add(e -> calls.add("third"));
+
+        // The event is delivered to all listeners registered when it was fired
+        listeners.fire(new TestEvent());
+        Assert.assertEquals(Arrays.asList("first", "second", "third"), calls);
+
+        calls.clear();
+        listeners.fire(new TestEvent());
+        Assert.assertEquals(Arrays.asList("third"), calls);
+
+        registrations[2].remove();
+        registrations[2].remove();
+        Assert.assertTrue(listeners.isEmpty());
+    }
+
+    @Test
+    public void listenersAddedWhileFiringGetNextEvent() {
+        listeners.add(e -> {
+            calls.add("first");
+            if (calls.size() == 1) {
+                listeners.add(added -> calls.add("added"));
+            }
+        });
+
+        listeners.fire(new TestEvent());
+        Assert.assertEquals(Arrays.asList("first"), calls);
+
+        listeners.fire(new TestEvent());
+        Assert.assertEquals(Arrays.asList("first", "first", "added"), calls);
+    }
+
+    @Test
+    public void firingToManyListenersDoesNotAllocate() {
+        final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported());
+        final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        final long thread = Thread.currentThread().getId();
+
+        final int[] count = {0};
+        for (int i = 0; i < 1000; i++) {
+            listeners.add(e -> count[0]++);
+        }
+        final TestEvent event = new TestEvent();
+        for (int i = 0; i < 1000; i++) {
+            listeners.fire(event);
+        }
+
+        final long allocatedBefore = allocations.getThreadAllocatedBytes(thread);
+        final long start = System.nanoTime();
+        for (int i = 0; i < 10_000; i++) {
+            listeners.fire(event);
+        }
+        final long nanos = System.nanoTime() - start;
+        final long allocated = allocations.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Assert.assertEquals(11_000 * 1000, count[0]);
+        Assert.assertTrue("Firing 10000 events to 1000 listeners took " + nanos / 1_000_000
+                + " ms and allocated " + allocated + " bytes", allocated < 16 * 1024);
+    }
+
+    private static class TestEvent extends ComponentEvent<Div> {
+
+        TestEvent() {
+            super(new Div(), false);
+        }
+    }
+}
@@ -1,19 +1,41 @@
 package com.vaadin.flow.component.crud;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.ComponentEventListener;
 import com.vaadin.flow.component.ComponentUtil;
+import com.vaadin.flow.component.DomEvent;
+import com.vaadin.flow.component.EventData;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.grid.Grid;
+import com.vaadin.flow.component.textfield.TextField;
 import com.vaadin.flow.component.html.Div;
+import com.vaadin.flow.component.internal.PendingJavaScriptInvocation;
+import com.vaadin.flow.data.binder.Binder;
 import com.vaadin.flow.data.provider.DataCommunicator;
 import com.vaadin.flow.data.provider.DataKeyMapper;
 import com.vaadin.flow.data.provider.DataProvider;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.change.MapPutChange;
+import com.vaadin.flow.internal.change.NodeChange;
+import com.vaadin.flow.shared.Registration;
 import elemental.json.JsonObject;
 import elemental.json.impl.JreJsonFactory;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class CrudTest {
 
@@ -31,23 +53,502 @@ public class CrudTest {
         // Client side new should not come with an item
         systemUnderTest.addNewListener(e -> Assert.assertNull(e.getItem()));
 
-        // A client-side Grid item.
-        final JsonObject selectedItem = new JreJsonFactory()
-                .parse("{\"key\": \"1\"}");
-
         // Simulate a sequence of interactions.
         Arrays.asList(
-                new Crud.NewEvent<>(systemUnderTest, false, null),
-                new Crud.CancelEvent<>(systemUnderTest, false, null),
+                new Crud.NewEvent<>(systemUnderTest, false),
+                new Crud.CancelEvent<>(systemUnderTest, false),
 
-                new Crud.EditEvent<>(systemUnderTest, false, selectedItem, null),
-                new Crud.DeleteEvent<>(systemUnderTest, false, null),
+                new Crud.EditEvent<>(systemUnderTest, false, "1"),
+                new Crud.DeleteEvent<>(systemUnderTest, false),
 
-                new Crud.EditEvent<>(systemUnderTest, false, selectedItem, null),
+                new Crud.EditEvent<>(systemUnderTest, false, "1"),
+                new Crud.SaveEvent<>(systemUnderTest, false)
+        ).forEach(e -> ComponentUtil.fireEvent(systemUnderTest, e));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void deprecatedEventConstructorsAreStillSupported() {
+        systemUnderTest.addEditListener(e -> Assert.assertNotNull(e.getItem()));
+        systemUnderTest.addNewListener(e -> Assert.assertNull(e.getItem()));
+
+        final JsonObject item = new JreJsonFactory().createObject();
+        item.put("key", "1");
+        Arrays.asList(
+                new Crud.NewEvent<>(systemUnderTest, false, null),
+                new Crud.CancelEvent<>(systemUnderTest, false, null),
+                new Crud.EditEvent<>(systemUnderTest, false, item, null),
                 new Crud.SaveEvent<>(systemUnderTest, false, null)
         ).forEach(e -> ComponentUtil.fireEvent(systemUnderTest, e));
     }
 
+    @Test
+    public void editItemLoaderProvidesEditedItem() {
+        final Thing copy = new Thing();
+        systemUnderTest.setEditItemLoader(item -> copy);
+        systemUnderTest.addEditListener(e -> Assert.assertSame(copy, e.getItem()));
+
+        ComponentUtil.fireEvent(systemUnderTest,
+                new Crud.EditEvent<>(systemUnderTest, false, "1"));
+
+        Assert.assertSame(copy, systemUnderTest.getEditor().getItem());
+    }
+
+    @Test
+    public void editorFactoryIsCalledOnFirstUse() {
+        final AtomicInteger created = new AtomicInteger();
+        systemUnderTest.setEditorFactory(() -> {
+            created.incrementAndGet();
+            return new ThingEditor();
+        });
+        Assert.assertEquals(0, created.get());
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.CancelEvent<>(systemUnderTest, false));
+        Assert.assertEquals(1, created.get());
+    }
+
+    @Test
+    public void pooledEditorIsReleasedOnDetach() {
+        final CrudEditorPool<Thing> pool = new CrudEditorPool<>(ThingEditor::new);
+        systemUnderTest.setEditorFactory(pool);
+        final UI ui = new UI();
+        ui.add(systemUnderTest);
+
+        final CrudEditor<Thing> editor = systemUnderTest.getEditor();
+        Assert.assertEquals(0, pool.getIdleCount());
+
+        // Moving the crud within the UI keeps its editor
+        ui.remove(systemUnderTest);
+        ui.add(systemUnderTest);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(0, pool.getIdleCount());
+        Assert.assertSame(editor, systemUnderTest.getEditor());
+
+        ui.remove(systemUnderTest);
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        Assert.assertEquals(1, pool.getIdleCount());
+
+        final Crud<Thing> other = new Crud<>(Thing.class, createFakeGrid(), new ThingEditor());
+        other.setEditorFactory(pool);
+        Assert.assertSame(editor, other.getEditor());
+        Assert.assertEquals(0, pool.getIdleCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void releasedEditorIsNotCleared() {
+        final CrudEditorPool<Thing> pool = new CrudEditorPool<>(ThingEditor::new);
+        final CrudEditor<Thing> editor = Mockito.mock(CrudEditor.class);
+
+        pool.release(editor);
+
+        Mockito.verifyZeroInteractions(editor);
+        Assert.assertSame(editor, pool.get());
+    }
+
+    @Test
+    public void rowProjectionRefreshesSavedRow() {
+        final Thing row = new Thing();
+        systemUnderTest.setEditor(new ThingEditor() {
+            @Override
+            public boolean validate() {
+                return true;
+            }
+        });
+        systemUnderTest.setRowProjection(item -> row);
+
+        ComponentUtil.fireEvent(systemUnderTest,
+                new Crud.EditEvent<>(systemUnderTest, false, "1"));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+
+        final DataProvider<Thing, ?> dataProvider = systemUnderTest.getGrid().getDataProvider();
+        Mockito.verify(dataProvider).refreshItem(row);
+        Mockito.verify(dataProvider, Mockito.never()).refreshAll();
+    }
+
+    @Test
+    public void editorDirtyStateIsSyncedAsProperty() {
+        final TextField name = new TextField();
+        final Binder<Thing> binder = new Binder<>(Thing.class);
+        binder.bind(name, thing -> thing.name, (thing, value) -> thing.name = value);
+        systemUnderTest.setEditor(new BinderCrudEditor<>(binder));
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        Assert.assertFalse(systemUnderTest.isDirty());
+
+        name.setValue("Sayo");
+        Assert.assertTrue(systemUnderTest.isDirty());
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        Assert.assertFalse(systemUnderTest.isDirty());
+
+        // The client marked the editor dirty by itself and synchronized the property
+        systemUnderTest.getElement().setProperty("__isDirty", true);
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        Assert.assertFalse(systemUnderTest.isDirty());
+    }
+
+    @Test
+    public void clientReportsDirtyStateChanges() {
+        final UI ui = new UI();
+        ui.add(systemUnderTest);
+
+        Assert.assertTrue(ui.getInternals().dumpPendingJavaScriptInvocations().stream()
+                .map(PendingJavaScriptInvocation::getInvocation)
+                .anyMatch(invocation -> invocation.getExpression().contains("_createNotifyingProperty('__isDirty')")));
+    }
+
+    @Test
+    public void editsOfFieldsBoundWithFunctionsAreChanges() {
+        final TextField name = new TextField();
+        final Binder<Thing> binder = new Binder<>(Thing.class);
+        binder.bind(name, thing -> thing.name, (thing, value) -> thing.name = value);
+        systemUnderTest.setEditor(new BinderCrudEditor<>(binder));
+        final List<Boolean> changes = new ArrayList<>();
+        systemUnderTest.addSaveListener(e -> changes.add(e.hasChanges()));
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.EditEvent<>(systemUnderTest, false, "1"));
+        name.setValue("Sayo");
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+
+        Assert.assertEquals(Collections.singletonList(true), changes);
+    }
+
+
+    @Test
+    public void conflictKeepsEditorOpenWithMergedItem() {
+        final Thing current = new Thing();
+        current.version = 1;
+        final List<Thing> merged = new ArrayList<>();
+        systemUnderTest.setEditor(new ThingEditor() {
+            @Override
+            public boolean validate() {
+                return true;
+            }
+
+            @Override
+            public boolean mergeItemChanges(Thing currentItem) {
+                merged.add(currentItem);
+                setItem(currentItem);
+                return true;
+            }
+        });
+        systemUnderTest.setVersionProvider(thing -> thing.version);
+        final InMemoryCrudMetrics metrics = new InMemoryCrudMetrics();
+        systemUnderTest.setMetrics(metrics);
+
+        final List<Object> versions = new ArrayList<>();
+        systemUnderTest.addSaveListener(e -> {
+            versions.add(e.getVersion());
+            if (!Integer.valueOf(current.version).equals(e.getVersion())) {
+                throw new CrudConflictException(current);
+            }
+        });
+        final List<Thing> conflicts = new ArrayList<>();
+        systemUnderTest.addConflictListener(e -> conflicts.add(e.getCurrentItem()));
+
+        ComponentUtil.fireEvent(systemUnderTest,
+                new Crud.EditEvent<>(systemUnderTest, false, "1"));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+
+        Assert.assertEquals(Collections.singletonList(current), merged);
+        Assert.assertEquals(Collections.singletonList(current), conflicts);
+        Assert.assertSame(current, systemUnderTest.getEditor().getItem());
+        Mockito.verify(systemUnderTest.getGrid().getDataProvider(), Mockito.never()).refreshAll();
+        Assert.assertEquals(1, metrics.getCounter(CrudMetrics.CONFLICTS));
+        Assert.assertEquals(0, metrics.getFailureCount(CrudMetrics.SAVE));
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+        Assert.assertEquals(Arrays.asList(0, 1), versions);
+        Mockito.verify(systemUnderTest.getGrid().getDataProvider()).refreshAll();
+    }
+
+    @Test
+    public void newItemsAreCopiedFromPrototype() {
+        final AtomicInteger prototypes = new AtomicInteger();
+        final PrototypeItemSupplier<Thing> supplier = new PrototypeItemSupplier<>(() -> {
+            final Thing prototype = new Thing();
+            prototype.name = "Prototype " + prototypes.incrementAndGet();
+            return prototype;
+        }, prototype -> {
+            final Thing copy = new Thing();
+            copy.name = prototype.name;
+            return copy;
+        });
+        systemUnderTest.setNewItemSupplier(supplier);
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        final Thing first = systemUnderTest.getEditor().getItem();
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        final Thing second = systemUnderTest.getEditor().getItem();
+
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals("Prototype 1", second.name);
+        Assert.assertEquals(1, prototypes.get());
+
+        supplier.refresh();
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        Assert.assertEquals("Prototype 2", systemUnderTest.getEditor().getItem().name);
+    }
+
+    @Test
+    public void saveAndNewRearmsEditorAndBatchesRefreshes() {
+        systemUnderTest.setEditor(new ThingEditor() {
+            @Override
+            public boolean validate() {
+                return true;
+            }
+        });
+        systemUnderTest.setSaveAndNew(true);
+        systemUnderTest.setSaveAndNewRefreshInterval(2);
+        final List<Thing> saved = new ArrayList<>();
+        systemUnderTest.addSaveListener(e -> saved.add(e.getItem()));
+        final DataProvider<Thing, ?> dataProvider = systemUnderTest.getGrid().getDataProvider();
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.NewEvent<>(systemUnderTest, false));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+        Assert.assertNotNull(systemUnderTest.getEditor().getItem());
+        Assert.assertNotSame(saved.get(0), systemUnderTest.getEditor().getItem());
+        Mockito.verify(dataProvider, Mockito.never()).refreshAll();
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+        Mockito.verify(dataProvider, Mockito.times(1)).refreshAll();
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.CancelEvent<>(systemUnderTest, false));
+        Mockito.verify(dataProvider, Mockito.times(2)).refreshAll();
+        Assert.assertEquals(3, saved.size());
+    }
+
+    @Test
+    public void editColumnIsAGridColumn() {
+        Grid<Thing> grid = new Grid<>();
+        grid.addColumn(thing -> thing.name).setKey("name");
+        Crud.addEditColumn(grid);
+        grid.appendHeaderRow();
+
+        Assert.assertTrue(Crud.hasEditColumn(grid));
+        Assert.assertEquals(2, grid.getColumns().size());
+        Assert.assertSame(grid.getColumns().get(1), grid.getColumnByKey("vaadin-crud-edit-column"));
+
+        Crud.removeEditColumn(grid);
+        Assert.assertFalse(Crud.hasEditColumn(grid));
+        Assert.assertEquals(1, grid.getColumns().size());
+    }
+
+    @Test
+    public void editColumnIsOnlyReplacedWhenLabelChanges() {
+        Grid<Thing> grid = new Grid<>();
+        Crud.addEditColumn(grid);
+        grid.addColumn(thing -> thing.name).setKey("name");
+        final Grid.Column<Thing> column = grid.getColumnByKey("vaadin-crud-edit-column");
+
+        Crud.setEditColumnI18n(grid, CrudI18n.createDefault());
+        Assert.assertSame(column, grid.getColumnByKey("vaadin-crud-edit-column"));
+
+        CrudI18n i18n = CrudI18n.createDefault();
+        i18n.setEditLabel("Muokkaa");
+        Crud.setEditColumnI18n(grid, i18n);
+
+        Assert.assertNotSame(column, grid.getColumnByKey("vaadin-crud-edit-column"));
+        Assert.assertEquals("vaadin-crud-edit-column", grid.getColumns().get(0).getKey());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void editOnClickIsHandledFromEditEvent() {
+        systemUnderTest.setEditOnClick(true);
+        Mockito.verify(systemUnderTest.getGrid(), Mockito.never())
+                .addItemClickListener(Mockito.any(ComponentEventListener.class));
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.EditEvent<>(systemUnderTest, true, "1"));
+        Assert.assertTrue(systemUnderTest.isOpened());
+        Assert.assertFalse(systemUnderTest.getElement().getProperty("__isNew", true));
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.CancelEvent<>(systemUnderTest, true));
+        Assert.assertFalse(systemUnderTest.isOpened());
+    }
+
+    @Test
+    public void switchingRowsWithEditOnClickKeepsEditorOpen() {
+        final UI ui = new UI();
+        ui.add(systemUnderTest);
+        systemUnderTest.setEditOnClick(true);
+        final Thing second = new Thing();
+        Mockito.when(systemUnderTest.getGrid().getDataCommunicator().getKeyMapper().get("2")).thenReturn(second);
+        responseBytes(ui);
+
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.EditEvent<>(systemUnderTest, true, "1"));
+        final int openingBytes = responseBytes(ui);
+
+        // A click on another row cancels the edited row and edits the clicked one in one request
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.CancelEvent<>(systemUnderTest, true));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.EditEvent<>(systemUnderTest, true, "2"));
+        final List<NodeChange> changes = responseChanges(ui);
+
+        Assert.assertTrue(systemUnderTest.isOpened());
+        Assert.assertSame(second, systemUnderTest.getEditor().getItem());
+        Assert.assertTrue(changes.stream()
+                .filter(MapPutChange.class::isInstance)
+                .noneMatch(change -> "editorOpened".equals(((MapPutChange) change).getKey())));
+        Assert.assertTrue(ui.getInternals().dumpPendingJavaScriptInvocations().isEmpty());
+        Assert.assertTrue(bytes(changes) < openingBytes);
+
+        // A cancel that no edit follows closes the editor
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.CancelEvent<>(systemUnderTest, true));
+        Assert.assertTrue(systemUnderTest.isOpened());
+        responseChanges(ui);
+        Assert.assertFalse(systemUnderTest.isOpened());
+    }
+
+    private static List<NodeChange> responseChanges(UI ui) {
+        ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
+        final List<NodeChange> changes = new ArrayList<>();
+        ui.getInternals().getStateTree().collectChanges(changes::add);
+        return changes;
+    }
+
+    private static int responseBytes(UI ui) {
+        final int bytes = bytes(responseChanges(ui));
+        ui.getInternals().dumpPendingJavaScriptInvocations();
+        return bytes;
+    }
+
+    private static int bytes(List<NodeChange> changes) {
+        final ConstantPool constantPool = new ConstantPool();
+        return changes.stream().mapToInt(change -> change.toJson(constantPool).toJson().length()).sum();
+    }
+
+    @Test
+    public void draftsAreSkippedWithoutDataProvider() {
+        final List<SerializableConsumer<Serializable>> draftListeners = new ArrayList<>();
+        final Grid<Thing> grid = createFakeGrid();
+        Mockito.when(grid.getDataProvider()).thenReturn(null);
+        final Crud<Thing> crud = new Crud<>(Thing.class, grid, new ThingEditor() {
+            @Override
+            public Registration addDraftListener(SerializableConsumer<Serializable> listener) {
+                draftListeners.add(listener);
+                return () -> draftListeners.remove(listener);
+            }
+        });
+        final CrudDraftStore draftStore = Mockito.mock(CrudDraftStore.class);
+        crud.setDraftStore(draftStore);
+
+        ComponentUtil.fireEvent(crud, new Crud.EditEvent<>(crud, false, "1"));
+        draftListeners.forEach(listener -> listener.accept("draft"));
+        ComponentUtil.fireEvent(crud, new Crud.CancelEvent<>(crud, false));
+
+        Mockito.verifyZeroInteractions(draftStore);
+    }
+
+    @Test
+    public void domEventsOnlySendItemKeys() {
+        final Map<Class<?>, List<String>> expected = new LinkedHashMap<>();
+        expected.put(Crud.NewEvent.class, Collections.emptyList());
+        expected.put(Crud.EditEvent.class, Collections.singletonList("event.detail.item.key"));
+        expected.put(Crud.SaveEvent.class, Collections.emptyList());
+        expected.put(Crud.CancelEvent.class, Collections.emptyList());
+        expected.put(Crud.DeleteEvent.class, Collections.emptyList());
+
+        expected.forEach((eventType, eventData) -> {
+            Assert.assertNotNull(eventType.getAnnotation(DomEvent.class));
+            Assert.assertEquals(eventType.getSimpleName(), eventData, eventDataExpressions(eventType));
+        });
+    }
+
+    @Test
+    public void domEventPayloadsDoNotGrowWithRowWidth() {
+        final List<Class<?>> eventTypes = Arrays.asList(Crud.NewEvent.class, Crud.EditEvent.class,
+                Crud.SaveEvent.class, Crud.CancelEvent.class, Crud.DeleteEvent.class);
+
+        for (Class<?> eventType : eventTypes) {
+            final String eventName = eventType.getAnnotation(DomEvent.class).value();
+            final int narrow = eventPayloadBytes(eventName, eventDataExpressions(eventType), row(2));
+            final int wide = eventPayloadBytes(eventName, eventDataExpressions(eventType), row(150));
+            // The event data previously sent the whole row and evaluated preventDefault()
+            final int previous = eventPayloadBytes(eventName, eventType == Crud.EditEvent.class
+                    ? Arrays.asList("event.detail.item", "event.preventDefault()")
+                    : Collections.singletonList("event.preventDefault()"), row(150));
+
+            Assert.assertEquals(eventType.getSimpleName(), narrow, wide);
+            Assert.assertTrue(eventType.getSimpleName() + " sends " + wide + " bytes, previously "
+                    + previous, wide < previous);
+        }
+
+        Assert.assertTrue(eventPayloadBytes("edit", eventDataExpressions(Crud.EditEvent.class), row(150)) < 100);
+    }
+
+    private static List<String> eventDataExpressions(Class<?> eventType) {
+        final List<String> expressions = new ArrayList<>();
+        for (Constructor<?> constructor : eventType.getConstructors()) {
+            for (Annotation[] annotations : constructor.getParameterAnnotations()) {
+                Arrays.stream(annotations)
+                        .filter(annotation -> annotation instanceof EventData)
+                        .forEach(annotation -> expressions.add(((EventData) annotation).value()));
+            }
+        }
+        return expressions;
+    }
+
+    /*
+     * The size of the event RPC invocation the client sends, with the values of the given
+     * event data expressions for the given grid row.
+     */
+    private static int eventPayloadBytes(String eventName, List<String> expressions, JsonObject row) {
+        final JsonObject data = new JreJsonFactory().createObject();
+        expressions.forEach(expression -> {
+            if ("event.detail.item".equals(expression)) {
+                data.put(expression, row);
+            } else if ("event.detail.item.key".equals(expression)) {
+                data.put(expression, row.getString("key"));
+            } else {
+                data.put(expression, new JreJsonFactory().createNull());
+            }
+        });
+
+        final JsonObject invocation = new JreJsonFactory().createObject();
+        invocation.put("type", "event");
+        invocation.put("node", 42);
+        invocation.put("event", eventName);
+        invocation.put("data", data);
+        return invocation.toJson().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static JsonObject row(int columns) {
+        final JsonObject row = new JreJsonFactory().createObject();
+        row.put("key", "17");
+        for (int i = 0; i < columns; i++) {
+            row.put("col" + i, "Value of column " + i);
+        }
+        return row;
+    }
+
+    @Test
+    public void metricsRecordListenersAndFailures() {
+        final InMemoryCrudMetrics metrics = new InMemoryCrudMetrics();
+        systemUnderTest.setMetrics(metrics);
+        systemUnderTest.addDeleteListener(e -> {
+            throw new IllegalStateException("Backend is down");
+        });
+
+        ComponentUtil.fireEvent(systemUnderTest,
+                new Crud.EditEvent<>(systemUnderTest, false, "1"));
+        ComponentUtil.fireEvent(systemUnderTest, new Crud.SaveEvent<>(systemUnderTest, false));
+        try {
+            ComponentUtil.fireEvent(systemUnderTest, new Crud.DeleteEvent<>(systemUnderTest, false));
+            Assert.fail("Listener exception should be rethrown");
+        } catch (IllegalStateException expected) {
+        }
+
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.EDIT));
+        Assert.assertEquals(0, metrics.getCount(CrudMetrics.SAVE));
+        Assert.assertEquals(1, metrics.getCounter(CrudMetrics.VALIDATION_FAILURES));
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.DELETE));
+        Assert.assertEquals(1, metrics.getFailureCount(CrudMetrics.DELETE));
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.REFRESH));
+    }
+
     @Test
     public void getEditorPosition_defaultOVERLAY() {
         Assert.assertEquals(CrudEditorPosition.OVERLAY, systemUnderTest.getEditorPosition());
@@ -70,6 +571,7 @@ public class CrudTest {
 
     public static class Thing {
         String name;
+        int version;
     }
 
     private static class ThingEditor implements CrudEditor<Thing> {
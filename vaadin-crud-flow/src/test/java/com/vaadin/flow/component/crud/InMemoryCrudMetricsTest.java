@@ -0,0 +1,40 @@
+package com.vaadin.flow.component.crud;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+
+public class InMemoryCrudMetricsTest {
+
+    private final InMemoryCrudMetrics metrics = new InMemoryCrudMetrics();
+
+    @Test
+    public void timesAreAggregatedPerOperation() {
+        metrics.recordTime(CrudMetrics.SAVE, 10);
+        metrics.recordTime(CrudMetrics.SAVE, 30);
+        metrics.recordTime(CrudMetrics.FETCH, 5);
+
+        Assert.assertEquals(2, metrics.getCount(CrudMetrics.SAVE));
+        Assert.assertEquals(Duration.ofNanos(40), metrics.getTotalTime(CrudMetrics.SAVE));
+        Assert.assertEquals(Duration.ofNanos(20), metrics.getMeanTime(CrudMetrics.SAVE));
+        Assert.assertEquals(Duration.ofNanos(30), metrics.getMaxTime(CrudMetrics.SAVE));
+        Assert.assertEquals(1, metrics.getCount(CrudMetrics.FETCH));
+        Assert.assertEquals(Duration.ZERO, metrics.getMeanTime(CrudMetrics.DELETE));
+    }
+
+    @Test
+    public void failuresAndCountersAreKeptApart() {
+        metrics.recordFailure(CrudMetrics.SAVE, new IllegalStateException());
+        metrics.increment(CrudMetrics.ROWS, 50);
+        metrics.increment(CrudMetrics.ROWS, 7);
+
+        Assert.assertEquals(1, metrics.getFailureCount(CrudMetrics.SAVE));
+        Assert.assertEquals(0, metrics.getCount(CrudMetrics.SAVE));
+        Assert.assertEquals(57, metrics.getCounter(CrudMetrics.ROWS));
+
+        metrics.reset();
+        Assert.assertEquals(0, metrics.getCounter(CrudMetrics.ROWS));
+        Assert.assertEquals(0, metrics.getFailureCount(CrudMetrics.SAVE));
+    }
+}
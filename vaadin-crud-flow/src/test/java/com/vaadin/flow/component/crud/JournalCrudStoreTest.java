@@ -0,0 +1,284 @@
+package com.vaadin.flow.component.crud;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class JournalCrudStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void itemsAreRecoveredFromJournal() {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.save(new Thing(1, "Sayo"));
+        store.save(new Thing(2, "Manolo"));
+        store.save(new Thing(1, "Otto"));
+        store.delete(new Thing(2, null));
+        store.close();
+
+        store = new JournalCrudStore<>(directory, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Otto"), names(store));
+        store.close();
+    }
+
+    @Test
+    public void batchedWritesAreSyncedOnFlush() {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.setSyncWrites(false);
+        store.save(new Thing(1, "Sayo"));
+
+        Assert.assertEquals(0, recoveredSize(directory));
+        Assert.assertEquals(0, store.size());
+
+        store.flush();
+        Assert.assertEquals(1, recoveredSize(directory));
+        Assert.assertEquals(1, store.size());
+        store.close();
+    }
+
+    @Test
+    public void batchedWritesAreSyncedPeriodically() throws InterruptedException {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.setSyncWrites(false);
+        store.setFlushInterval(Duration.ofMillis(10));
+        store.save(new Thing(1, "Sayo"));
+
+        for (int i = 0; i < 500 && store.size() == 0; i++) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(1, store.size());
+        store.close();
+    }
+
+    @Test
+    public void snapshotTruncatesJournal() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.setSnapshotInterval(2);
+        store.save(new Thing(1, "Sayo"));
+        store.save(new Thing(2, "Manolo"));
+        store.save(new Thing(3, "Guille"));
+        store.close();
+
+        Assert.assertTrue(Files.exists(directory.resolve("snapshot")));
+        Assert.assertTrue(Files.size(directory.resolve("journal")) > 0);
+
+        store = new JournalCrudStore<>(directory, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo", "Guille"), names(store));
+        store.close();
+    }
+
+    @Test
+    public void tornRecordIsDropped() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.save(new Thing(1, "Sayo"));
+        store.close();
+
+        Files.write(directory.resolve("journal"), new byte[] { 0, 0, 0, 42, 1, 7 },
+                StandardOpenOption.APPEND);
+
+        store = new JournalCrudStore<>(directory, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Sayo"), names(store));
+        store.save(new Thing(2, "Manolo"));
+        store.close();
+
+        store = new JournalCrudStore<>(directory, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"), names(store));
+        store.close();
+    }
+
+    @Test
+    public void corruptRecordLengthIsDropped() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.save(new Thing(1, "Sayo"));
+        store.close();
+
+        Files.write(directory.resolve("journal"), new byte[] { 0x7f, -1, -1, -1, 1, 7, 0, 0, 0, 0 },
+                StandardOpenOption.APPEND);
+
+        store = new JournalCrudStore<>(directory, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Sayo"), names(store));
+        store.close();
+    }
+
+    @Test
+    public void deserializedStoreResolvesToOpenStore() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.save(new Thing(1, "Sayo"));
+
+        Assert.assertSame(store, serializeAndDeserialize(store));
+        store.close();
+
+        JournalCrudStore<?> reopened = serializeAndDeserialize(store);
+        Assert.assertNotSame(store, reopened);
+        Assert.assertEquals(1, reopened.size());
+        reopened.close();
+    }
+
+    @Test
+    public void concurrentSyncedWritesKeepUpWithSerialOnes() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        final int threads = 8;
+        final int writes = 200;
+
+        long singleNanos = time(() -> {
+            for (int i = 0; i < threads * writes; i++) {
+                store.save(new Thing(i, "Single " + i));
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long concurrentNanos;
+        try {
+            List<Callable<Void>> writers = IntStream.range(0, threads)
+                    .mapToObj(thread -> (Callable<Void>) () -> {
+                        for (int i = 0; i < writes; i++) {
+                            store.save(new Thing(thread * writes + i, "Concurrent " + i));
+                        }
+                        return null;
+                    })
+                    .collect(Collectors.toList());
+            long start = System.nanoTime();
+            for (Future<Void> future : executor.invokeAll(writers)) {
+                future.get();
+            }
+            concurrentNanos = System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+        }
+        store.close();
+
+        Assert.assertEquals(threads * writes, recoveredSize(directory));
+        // Each write waits for its sync, so one thread can only be as fast as the device allows
+        Assert.assertTrue(threads * writes + " synced writes took " + singleNanos / 1_000_000
+                + " ms from one thread and " + concurrentNanos / 1_000_000 + " ms from "
+                + threads + " threads", concurrentNanos < 2 * singleNanos);
+    }
+
+    @Test
+    public void snapshotsBoundRecoveryReads() throws IOException {
+        Path snapshotted = folder.newFolder("snapshotted").toPath();
+        Path journaled = folder.newFolder("journaled").toPath();
+        writeOverwrites(snapshotted, 1000);
+        writeOverwrites(journaled, Integer.MAX_VALUE);
+
+        long snapshottedNanos = time(() -> Assert.assertEquals(100, recoveredSize(snapshotted)));
+        long journaledNanos = time(() -> Assert.assertEquals(100, recoveredSize(journaled)));
+        long snapshottedBytes = recoveryBytes(snapshotted);
+        long journaledBytes = recoveryBytes(journaled);
+
+        Assert.assertTrue("Recovering 100 items overwritten 200 times read " + snapshottedBytes
+                + " bytes in " + snapshottedNanos / 1_000_000 + " ms with snapshots and "
+                + journaledBytes + " bytes in " + journaledNanos / 1_000_000 + " ms without",
+                snapshottedBytes * 5 < journaledBytes);
+    }
+
+    private static void writeOverwrites(Path directory, int snapshotInterval) {
+        JournalCrudStore<Thing> store = new JournalCrudStore<>(directory, new ThingCodec());
+        store.setSnapshotInterval(snapshotInterval);
+        store.setSyncWrites(false);
+        for (int round = 0; round < 200; round++) {
+            for (int id = 0; id < 100; id++) {
+                store.save(new Thing(id, "Round " + round));
+            }
+        }
+        store.close();
+    }
+
+    private static long recoveryBytes(Path directory) throws IOException {
+        Path snapshot = directory.resolve("snapshot");
+        return Files.size(directory.resolve("journal")) + (Files.exists(snapshot) ? Files.size(snapshot) : 0);
+    }
+
+    private static long time(Runnable task) {
+        long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    private static JournalCrudStore<?> serializeAndDeserialize(JournalCrudStore<?> store) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(store);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (JournalCrudStore<?>) in.readObject();
+        }
+    }
+
+    private static int recoveredSize(Path directory) {
+        JournalCrudStore<Thing> recovered = new JournalCrudStore<>(directory, new ThingCodec());
+        int size = recovered.size();
+        recovered.close();
+        return size;
+    }
+
+    private static List<String> names(JournalCrudStore<Thing> store) {
+        return store.getItems().stream()
+                .map(thing -> thing.name)
+                .collect(Collectors.toList());
+    }
+
+    private static class Thing {
+        final int id;
+        final String name;
+
+        Thing(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class ThingCodec implements JournalCrudStore.Codec<Thing> {
+
+        @Override
+        public Object getKey(Thing item) {
+            return item.id;
+        }
+
+        @Override
+        public void write(Thing item, DataOutput out) throws IOException {
+            out.writeInt(item.id);
+            out.writeBoolean(item.name != null);
+            if (item.name != null) {
+                out.writeUTF(item.name);
+            }
+        }
+
+        @Override
+        public Thing read(DataInput in) throws IOException {
+            int id = in.readInt();
+            return new Thing(id, in.readBoolean() ? in.readUTF() : null);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class KeyedCrudDataProviderTest {
+
+    private final KeyedCrudStore<Thing> store = new KeyedCrudStore<>(Thing::getId,
+            (thing, id) -> thing.id = id.intValue());
+    private final KeyedCrudDataProvider<Thing> provider
+            = new KeyedCrudDataProvider<>(Thing.class, store, Thing::getId);
+
+    @Test
+    public void pagesComeFromPinnedVersion() {
+        store.saveAll(IntStream.rangeClosed(1, 6)
+                .mapToObj(i -> new Thing(i, "Thing " + i))
+                .collect(Collectors.toList()));
+        CrudFilter filter = new CrudFilter();
+
+        Assert.assertEquals(6, provider.size(query(0, 3, filter)));
+        Assert.assertEquals(Arrays.asList("Thing 1", "Thing 2", "Thing 3"), fetch(0, 3, filter));
+
+        // A concurrent delete must not shift the next page
+        store.deleteById(1);
+        Assert.assertEquals(Arrays.asList("Thing 4", "Thing 5", "Thing 6"), fetch(3, 3, filter));
+
+        provider.release(filter);
+        Assert.assertEquals(-1, provider.getPinnedVersion(filter));
+        Assert.assertEquals(Arrays.asList("Thing 2", "Thing 3", "Thing 4"), fetch(0, 3, filter));
+        Assert.assertEquals(store.snapshot().getVersion(), provider.getPinnedVersion(filter));
+    }
+
+    @Test
+    public void filtersPinVersionsIndependently() {
+        store.save(new Thing(1, "Sayo"));
+        CrudFilter first = new CrudFilter();
+        CrudFilter second = new CrudFilter();
+
+        fetch(0, 10, first);
+        store.save(new Thing(2, "Manolo"));
+
+        Assert.assertEquals(Collections.singletonList("Sayo"), fetch(0, 10, first));
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"), fetch(0, 10, second));
+    }
+
+    @Test
+    public void refreshingKeepsOtherPins() {
+        store.save(new Thing(1, "Sayo"));
+        CrudFilter saving = new CrudFilter();
+        CrudFilter scrolling = new CrudFilter();
+        fetch(0, 10, saving);
+        fetch(0, 10, scrolling);
+
+        store.save(new Thing(2, "Manolo"));
+        provider.refreshAll(saving);
+
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"), fetch(0, 10, saving));
+        Assert.assertEquals(Collections.singletonList("Sayo"), fetch(0, 10, scrolling));
+
+        // Changing the filter moves only that grid to the newest version
+        scrolling.getSortOrders().put("name", SortDirection.ASCENDING);
+        Assert.assertEquals(Arrays.asList("Manolo", "Sayo"), fetch(0, 10, scrolling));
+    }
+
+    @Test
+    public void refreshingAllReleasesAllPins() {
+        store.save(new Thing(1, "Sayo"));
+        CrudFilter first = new CrudFilter();
+        CrudFilter second = new CrudFilter();
+        fetch(0, 10, first);
+        fetch(0, 10, second);
+
+        store.save(new Thing(2, "Manolo"));
+        provider.refreshAll();
+
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"), fetch(0, 10, first));
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"), fetch(0, 10, second));
+    }
+
+    @Test
+    public void pinnedItemsAreSortedOnce() {
+        store.saveAll(IntStream.rangeClosed(1, 6)
+                .mapToObj(i -> new Thing(i, "Thing " + i))
+                .collect(Collectors.toList()));
+        CrudFilter filter = new CrudFilter();
+        filter.getSortOrders().put("id", SortDirection.DESCENDING);
+
+        Assert.assertEquals(Arrays.asList("Thing 6", "Thing 5", "Thing 4"), fetch(0, 3, filter));
+        int reads = Thing.idReads.get();
+        Assert.assertEquals(6, provider.size(query(0, 3, filter)));
+        Assert.assertEquals(Arrays.asList("Thing 3", "Thing 2", "Thing 1"), fetch(3, 3, filter));
+        Assert.assertEquals(reads, Thing.idReads.get());
+    }
+
+    @Test
+    public void constraintsAndSortOrders() {
+        store.saveAll(Arrays.asList(new Thing(1, "Sayo"), new Thing(2, "Manolo"),
+                new Thing(3, "Guille"), new Thing(4, null)));
+        CrudFilter filter = new CrudFilter();
+        filter.getConstraints().put("name", "O");
+        filter.getSortOrders().put("id", SortDirection.DESCENDING);
+
+        Assert.assertEquals(Arrays.asList("Manolo", "Sayo"), fetch(0, 10, filter));
+        Assert.assertEquals(2, provider.size(query(0, 10, filter)));
+    }
+
+    private List<String> fetch(int offset, int limit, CrudFilter filter) {
+        return provider.fetch(query(offset, limit, filter))
+                .map(Thing::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static Query<Thing, CrudFilter> query(int offset, int limit, CrudFilter filter) {
+        return new Query<>(offset, limit, Collections.emptyList(), null, filter);
+    }
+
+    public static class Thing {
+        private static final AtomicInteger idReads = new AtomicInteger();
+
+        private Integer id;
+        private final String name;
+
+        Thing(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            idReads.incrementAndGet();
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.vaadin.flow.component.crud;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class KeyedCrudStoreTest {
+
+    private final KeyedCrudStore<Thing> store = new KeyedCrudStore<>(thing -> thing.id,
+            (thing, id) -> thing.id = id.intValue());
+
+    @Test
+    public void newItemsGetSequentialIds() {
+        store.save(new Thing(5, "Sayo"));
+        Thing manolo = new Thing(null, "Manolo");
+        store.save(manolo);
+
+        Assert.assertEquals(Integer.valueOf(6), manolo.id);
+        Assert.assertSame(manolo, store.find(6).get());
+        Assert.assertFalse(store.find(7).isPresent());
+    }
+
+    @Test
+    public void replacingKeepsOrder() {
+        store.saveAll(Arrays.asList(new Thing(1, "Sayo"), new Thing(2, "Manolo"), new Thing(3, "Guille")));
+        store.save(new Thing(2, "Otto"));
+
+        Assert.assertEquals(Arrays.asList("Sayo", "Otto", "Guille"), names());
+        Assert.assertEquals(3, store.size());
+    }
+
+    @Test
+    public void deleteAndCompact() {
+        for (int i = 1; i <= 100; i++) {
+            store.save(new Thing(i, "Thing " + i));
+        }
+        for (int i = 1; i <= 90; i++) {
+            Assert.assertTrue(store.deleteById(i));
+        }
+        Assert.assertFalse(store.delete(new Thing(1, null)));
+
+        Assert.assertEquals(10, store.size());
+        Assert.assertEquals("Thing 91", store.getItems().get(0).name);
+        Assert.assertEquals("Thing 95", store.find(95).get().name);
+    }
+
+    @Test
+    public void indexMatchesMap() {
+        Random random = new Random(42);
+        Map<Integer, Thing> expected = new LinkedHashMap<>();
+        for (int i = 0; i < 20000; i++) {
+            int id = random.nextInt(2000);
+            if (random.nextBoolean()) {
+                Thing thing = new Thing(id, "Thing " + i);
+                store.save(thing);
+                expected.put(id, thing);
+            } else {
+                Assert.assertEquals(expected.remove(id) != null, store.deleteById(id));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), store.size());
+        expected.forEach((id, thing) -> Assert.assertSame(thing, store.find(id).get()));
+        Assert.assertEquals(new ArrayList<>(expected.values()), store.getItems());
+    }
+
+    @Test
+    public void snapshotIsNotAffectedByWrites() {
+        store.saveAll(Arrays.asList(new Thing(1, "Sayo"), new Thing(2, "Manolo")));
+        KeyedCrudStore.Snapshot<Thing> snapshot = store.snapshot();
+
+        store.save(new Thing(1, "Otto"));
+        store.save(new Thing(3, "Guille"));
+        store.deleteById(2);
+
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo"),
+                snapshot.stream().map(thing -> thing.name).collect(Collectors.toList()));
+        Assert.assertEquals(Arrays.asList("Otto", "Guille"), names());
+        Assert.assertTrue(store.snapshot().getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    public void savingAndFindingIsFasterThanScanningAList() {
+        final int count = 5000;
+        // The first rounds warm up both variants
+        long storeNanos = 0;
+        long listNanos = 0;
+        for (int round = 0; round < 2; round++) {
+            storeNanos = time(() -> saveAndFindInStore(count));
+            listNanos = time(() -> saveAndFindInList(count));
+        }
+
+        Assert.assertTrue("Saving and finding " + count + " items took " + storeNanos / 1_000_000
+                + " ms with the store and " + listNanos / 1_000_000 + " ms with list scans",
+                storeNanos < listNanos);
+    }
+
+    private static void saveAndFindInStore(int count) {
+        KeyedCrudStore<Thing> store = new KeyedCrudStore<>(thing -> thing.id,
+                (thing, id) -> thing.id = id.intValue());
+        for (int i = 0; i < count; i++) {
+            store.save(new Thing(null, "Thing " + i));
+        }
+        for (int id = 1; id <= count; id++) {
+            Assert.assertTrue(store.find(id).isPresent());
+        }
+    }
+
+    /*
+     * Saves and finds items the way the example backend did before it used a store.
+     */
+    private static void saveAndFindInList(int count) {
+        List<Thing> list = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Thing thing = new Thing(null, "Thing " + i);
+            thing.id = list.stream().map(item -> item.id).max(Integer::compare).orElse(0) + 1;
+            list.add(thing);
+        }
+        for (int id = 1; id <= count; id++) {
+            final int wanted = id;
+            Assert.assertTrue(list.stream().anyMatch(item -> item.id == wanted));
+        }
+    }
+
+    private static long time(Runnable task) {
+        final long start = System.nanoTime();
+        task.run();
+        return System.nanoTime() - start;
+    }
+
+    private List<String> names() {
+        return store.stream().map(thing -> thing.name).collect(Collectors.toList());
+    }
+
+    private static class Thing {
+        Integer id;
+        final String name;
+
+        Thing(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MappedFileCrudDataProviderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path file;
+    private MappedFileCrudDataProvider<Thing> provider;
+
+    @Before
+    public void setup() throws Exception {
+        file = folder.getRoot().toPath().resolve("things.crud");
+        MappedFileCrudDataProvider.write(file, new ThingCodec(), Arrays.asList(
+                new Thing("1", "Sayo"),
+                new Thing("2", "Manolo"),
+                new Thing("3", "Guille")));
+        provider = new MappedFileCrudDataProvider<>(file, new ThingCodec());
+    }
+
+    @After
+    public void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    public void fetchesMappedRows() {
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo", "Guille"), names(new CrudFilter()));
+        Assert.assertEquals(3, provider.size(query(new CrudFilter())));
+    }
+
+    @Test
+    public void filtersAndSorts() {
+        CrudFilter filter = new CrudFilter();
+        filter.getConstraints().put("name", "L");
+        filter.getSortOrders().put("name", SortDirection.DESCENDING);
+
+        Assert.assertEquals(Arrays.asList("Manolo", "Guille"), names(filter));
+        Assert.assertEquals(2, provider.size(query(filter)));
+    }
+
+    @Test
+    public void savesAndDeletesAreAppliedAndReplayed() {
+        provider.save(new Thing("2", "Otto"));
+        provider.save(new Thing("4", "Tatu"));
+        provider.delete(new Thing("1", null));
+
+        Assert.assertEquals(Arrays.asList("Otto", "Guille", "Tatu"), names(new CrudFilter()));
+
+        provider.close();
+        provider = new MappedFileCrudDataProvider<>(file, new ThingCodec());
+
+        Assert.assertEquals(Arrays.asList("Otto", "Guille", "Tatu"), names(new CrudFilter()));
+    }
+
+    @Test
+    public void compactionMergesLog() throws Exception {
+        provider.setCompactionThreshold(2);
+        provider.save(new Thing("4", "Tatu"));
+        provider.delete(new Thing("3", null));
+
+        Assert.assertEquals(0, Files.size(file.resolveSibling("things.crud.log")));
+        Assert.assertEquals(Arrays.asList("Sayo", "Manolo", "Tatu"), names(new CrudFilter()));
+    }
+
+    @Test
+    public void pagesSkipDeletedRows() {
+        provider.delete(new Thing("1", null));
+        provider.save(new Thing("4", "Tatu"));
+        provider.save(new Thing("5", "Otto"));
+        provider.delete(new Thing("4", null));
+
+        Assert.assertEquals(3, provider.size(query(new CrudFilter())));
+        Assert.assertEquals(Arrays.asList("Guille", "Otto"), names(new CrudFilter(), 1, 5));
+        Assert.assertEquals(Arrays.asList("Manolo"), names(new CrudFilter(), 0, 1));
+
+        CrudFilter sorted = new CrudFilter();
+        sorted.getSortOrders().put("name", SortDirection.ASCENDING);
+        Assert.assertEquals(Arrays.asList("Manolo", "Otto"), names(sorted, 1, 2));
+        Assert.assertEquals(Arrays.asList("Guille"), names(sorted, 0, 1));
+    }
+
+    @Test
+    public void corruptLogRecordEndsReplay() throws Exception {
+        provider.save(new Thing("2", "Otto"));
+        provider.save(new Thing("3", "Tatu"));
+        provider.close();
+
+        Path log = file.resolveSibling("things.crud.log");
+        byte[] bytes = Files.readAllBytes(log);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(log, bytes);
+
+        provider = new MappedFileCrudDataProvider<>(file, new ThingCodec());
+        Assert.assertEquals(Arrays.asList("Sayo", "Otto", "Guille"), names(new CrudFilter()));
+        Assert.assertTrue(Files.size(log) < bytes.length);
+    }
+
+    @Test
+    public void savesReplaceIndexedRows() {
+        Path many = folder.getRoot().toPath().resolve("many.crud");
+        MappedFileCrudDataProvider.write(many, new ThingCodec(), IntStream.range(0, 1000)
+                .mapToObj(i -> new Thing(String.valueOf(i), "Thing " + i))
+                .collect(Collectors.toList()));
+        provider.close();
+        provider = new MappedFileCrudDataProvider<>(many, new ThingCodec());
+
+        provider.save(new Thing("500", "Tatu"));
+        provider.delete(new Thing("999", null));
+        provider.save(new Thing("1000", "Otto"));
+
+        Assert.assertEquals(1000, provider.size(query(new CrudFilter())));
+        Assert.assertEquals(Arrays.asList("Thing 499", "Tatu", "Thing 501"), names(new CrudFilter(), 499, 3));
+        Assert.assertEquals(Arrays.asList("Thing 998", "Otto"), names(new CrudFilter(), 998, 5));
+    }
+
+    @Test
+    public void constrainedSizeIsRecountedAfterWrites() {
+        CrudFilter filter = new CrudFilter();
+        filter.getConstraints().put("name", "l");
+        Assert.assertEquals(2, provider.size(query(filter)));
+
+        provider.save(new Thing("4", "Lola"));
+        Assert.assertEquals(3, provider.size(query(filter)));
+
+        provider.delete(new Thing("2", null));
+        Assert.assertEquals(2, provider.size(query(filter)));
+    }
+
+    private List<String> names(CrudFilter filter, int offset, int limit) {
+        return provider.fetch(new Query<>(offset, limit, null, null, filter))
+                .map(thing -> thing.name)
+                .collect(Collectors.toList());
+    }
+
+    private List<String> names(CrudFilter filter) {
+        return provider.fetch(query(filter))
+                .map(thing -> thing.name)
+                .collect(Collectors.toList());
+    }
+
+    private static Query<Thing, CrudFilter> query(CrudFilter filter) {
+        return new Query<>(0, Integer.MAX_VALUE, null, null, filter);
+    }
+
+    private static class Thing {
+        final String id;
+        final String name;
+
+        Thing(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    private static class ThingCodec implements MappedFileCrudDataProvider.RowCodec<Thing> {
+
+        @Override
+        public List<String> getColumns() {
+            return Arrays.asList("id", "name");
+        }
+
+        @Override
+        public String[] encode(Thing item) {
+            return new String[] { item.id, item.name };
+        }
+
+        @Override
+        public Thing decode(String[] values) {
+            return new Thing(values[0], values[1]);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.vaadin.flow.component.crud;
+
+import com.vaadin.flow.server.ServiceDestroyEvent;
+import com.vaadin.flow.server.ServiceDestroyListener;
+import com.vaadin.flow.server.VaadinService;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class WriteBehindCrudDraftStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void draftsAreCoalescedUntilFlush() {
+        final RecordingStore recording = new RecordingStore();
+        final WriteBehindCrudDraftStore store = new WriteBehindCrudDraftStore(recording, Duration.ofHours(1));
+
+        store.save(1, "first");
+        store.save(1, "second");
+        store.save(2, "other");
+        Assert.assertEquals(Optional.of("second"), store.load(1));
+        Assert.assertEquals(2, store.getPendingCount());
+        Assert.assertTrue(recording.batches.isEmpty());
+
+        store.close();
+        Assert.assertEquals(1, recording.batches.size());
+        Assert.assertEquals("second", recording.batches.get(0).get(1));
+        Assert.assertEquals(0, store.getPendingCount());
+    }
+
+    @Test
+    public void draftsAreFlushedPeriodically() throws InterruptedException {
+        final FileCrudDraftStore files = new FileCrudDraftStore(folder.getRoot().toPath());
+        final WriteBehindCrudDraftStore store = new WriteBehindCrudDraftStore(files, Duration.ofMillis(10));
+
+        store.save("person/1", "draft");
+        for (int i = 0; i < 500 && store.getPendingCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+
+        Assert.assertEquals(Optional.of("draft"), files.load("person/1"));
+        store.save("person/1", null);
+        store.close();
+        Assert.assertFalse(files.load("person/1").isPresent());
+    }
+
+    @Test
+    public void failedBatchStaysPending() {
+        final RecordingStore recording = new RecordingStore();
+        recording.failing = true;
+        final WriteBehindCrudDraftStore store = new WriteBehindCrudDraftStore(recording, Duration.ofHours(1));
+        store.save(1, "draft");
+
+        try {
+            store.flush();
+            Assert.fail("The failure should be reported");
+        } catch (IllegalStateException expected) {
+            Assert.assertEquals(1, store.getPendingCount());
+        }
+
+        recording.failing = false;
+        store.close();
+        Assert.assertEquals("draft", recording.batches.get(0).get(1));
+    }
+
+    @Test
+    public void draftsAreFlushedWhenServiceIsDestroyed() {
+        final RecordingStore recording = new RecordingStore();
+        final WriteBehindCrudDraftStore store = new WriteBehindCrudDraftStore(recording, Duration.ofHours(1));
+        final VaadinService service = Mockito.mock(VaadinService.class);
+        store.closeOnServiceDestroy(service);
+        store.save(1, "draft");
+
+        final ArgumentCaptor<ServiceDestroyListener> listener = ArgumentCaptor.forClass(ServiceDestroyListener.class);
+        Mockito.verify(service).addServiceDestroyListener(listener.capture());
+        listener.getValue().serviceDestroy(new ServiceDestroyEvent(service));
+
+        Assert.assertEquals(0, store.getPendingCount());
+        Assert.assertEquals("draft", recording.batches.get(0).get(1));
+    }
+
+    private static class RecordingStore implements CrudDraftStore {
+        final List<Map<Object, Serializable>> batches = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void save(Object key, Serializable draft) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAll(Map<Object, Serializable> drafts) {
+            if (failing) {
+                throw new IllegalStateException("Store is not available");
+            }
+            batches.add(drafts);
+        }
+
+        @Override
+        public Optional<Serializable> load(Object key) {
+            return Optional.empty();
+        }
+    }
+}